@@ -0,0 +1,95 @@
+package org.dice_research.serial.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A simple bean that is used as key and value of the maps in the benchmarks.
+ * 
+ * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+ *
+ */
+public class BenchmarkObject {
+    private String attribute1;
+    private int attribute2;
+
+    public BenchmarkObject() {
+        super();
+    }
+
+    public BenchmarkObject(String attribute1, int attribute2) {
+        super();
+        this.attribute1 = attribute1;
+        this.attribute2 = attribute2;
+    }
+
+    /**
+     * Creates a map with the given number of entries.
+     * 
+     * @param size the number of entries of the map
+     * @return the created map
+     */
+    public static Map<BenchmarkObject, BenchmarkObject> createMap(int size) {
+        Map<BenchmarkObject, BenchmarkObject> map = new HashMap<>();
+        for (int i = 0; i < size; ++i) {
+            map.put(new BenchmarkObject("key" + i, i), new BenchmarkObject("value" + i, -i));
+        }
+        return map;
+    }
+
+    /**
+     * @return the attribute1
+     */
+    public String getAttribute1() {
+        return attribute1;
+    }
+
+    /**
+     * @param attribute1 the attribute1 to set
+     */
+    public void setAttribute1(String attribute1) {
+        this.attribute1 = attribute1;
+    }
+
+    /**
+     * @return the attribute2
+     */
+    public int getAttribute2() {
+        return attribute2;
+    }
+
+    /**
+     * @param attribute2 the attribute2 to set
+     */
+    public void setAttribute2(int attribute2) {
+        this.attribute2 = attribute2;
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + ((attribute1 == null) ? 0 : attribute1.hashCode());
+        result = prime * result + attribute2;
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        BenchmarkObject other = (BenchmarkObject) obj;
+        if (attribute1 == null) {
+            if (other.attribute1 != null)
+                return false;
+        } else if (!attribute1.equals(other.attribute1))
+            return false;
+        if (attribute2 != other.attribute2)
+            return false;
+        return true;
+    }
+}
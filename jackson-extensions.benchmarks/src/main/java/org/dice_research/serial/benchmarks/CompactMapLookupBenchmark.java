@@ -0,0 +1,81 @@
+package org.dice_research.serial.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.dice_research.serial.maps.CompactImmutableMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the lookup latency of a {@link HashMap} and a
+ * {@link CompactImmutableMap} containing the same entries. Every invocation
+ * looks up a batch of keys (half of them are not contained in the map).
+ * 
+ * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompactMapLookupBenchmark {
+
+    private static final int LOOKUPS = 1024;
+
+    @Param({ "1000", "1000000" })
+    private int size;
+
+    private Map<BenchmarkObject, BenchmarkObject> hashMap;
+    private Map<BenchmarkObject, BenchmarkObject> compactMap;
+    private BenchmarkObject[] lookupKeys;
+
+    @Setup
+    public void setup() {
+        hashMap = BenchmarkObject.createMap(size);
+        CompactImmutableMap.Builder<BenchmarkObject, BenchmarkObject> builder = new CompactImmutableMap.Builder<>(
+                size);
+        builder.putAll(hashMap);
+        compactMap = builder.build();
+        Random random = new Random(42);
+        lookupKeys = new BenchmarkObject[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; ++i) {
+            // use twice the size to get misses as well
+            int id = random.nextInt(2 * size);
+            lookupKeys[i] = new BenchmarkObject("key" + id, id);
+        }
+    }
+
+    @Benchmark
+    public int hashMapLookup() {
+        return lookup(hashMap);
+    }
+
+    @Benchmark
+    public int compactMapLookup() {
+        return lookup(compactMap);
+    }
+
+    protected int lookup(Map<BenchmarkObject, BenchmarkObject> map) {
+        int found = 0;
+        for (int i = 0; i < LOOKUPS; ++i) {
+            if (map.get(lookupKeys[i]) != null) {
+                ++found;
+            }
+        }
+        return found;
+    }
+}
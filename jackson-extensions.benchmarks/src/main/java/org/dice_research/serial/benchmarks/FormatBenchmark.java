@@ -0,0 +1,122 @@
+package org.dice_research.serial.benchmarks;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.dice_research.serial.maps.ComplexHashMapDeserializer;
+import org.dice_research.serial.maps.ComplexMapSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+/**
+ * Compares the serialization and deserialization throughput of the
+ * {@link ComplexMapSerializer} and the {@link ComplexHashMapDeserializer} for
+ * different data formats. The sizes of the serialized maps can be printed with
+ * {@link #main(String[])}.
+ * 
+ * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatBenchmark {
+
+    public static final String[] FORMATS = { "json", "smile", "smile-shared", "cbor" };
+
+    @Param({ "json", "smile", "smile-shared", "cbor" })
+    private String format;
+
+    @Param({ "10000" })
+    private int size;
+
+    private ObjectMapper mapper;
+    private Map<BenchmarkObject, BenchmarkObject> map;
+    private byte[] data;
+
+    @Setup
+    public void setup() throws IOException {
+        mapper = createMapper(format);
+        map = BenchmarkObject.createMap(size);
+        data = mapper.writeValueAsBytes(map);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return mapper.writeValueAsBytes(map);
+    }
+
+    @Benchmark
+    public Map<?, ?> deserialize() throws IOException {
+        return mapper.readValue(data, Map.class);
+    }
+
+    /**
+     * Creates an {@link ObjectMapper} for the given format with the
+     * (de)serializers of the maps module.
+     * 
+     * @param format the name of the format
+     * @return the created mapper
+     */
+    public static ObjectMapper createMapper(String format) {
+        JsonFactory factory;
+        switch (format) {
+        case "smile":
+            factory = new SmileFactory();
+            break;
+        case "smile-shared":
+            factory = SmileFactory.builder().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                    .disable(SmileGenerator.Feature.ENCODE_BINARY_AS_7BIT).build();
+            break;
+        case "cbor":
+            factory = new CBORFactory();
+            break;
+        default:
+            factory = new JsonFactory();
+            break;
+        }
+        SimpleModule module = new SimpleModule();
+        module.addSerializer(Map.class, new ComplexMapSerializer());
+        module.addDeserializer(Map.class, new ComplexHashMapDeserializer());
+        return new ObjectMapper(factory).registerModule(module);
+    }
+
+    /**
+     * Prints the number of bytes of a serialized map for all formats.
+     * 
+     * @param args ignored
+     * @throws IOException if the serialization fails
+     */
+    public static void main(String[] args) throws IOException {
+        int[] sizes = { 100, 10000 };
+        System.out.println("format\tsize\tbytes\tbytes/entry");
+        for (String format : FORMATS) {
+            ObjectMapper mapper = createMapper(format);
+            for (int size : sizes) {
+                int bytes = mapper.writeValueAsBytes(BenchmarkObject.createMap(size)).length;
+                System.out.println(
+                        String.format("%s\t%d\t%d\t%.1f", format, size, bytes, bytes / (double) size));
+            }
+        }
+    }
+}
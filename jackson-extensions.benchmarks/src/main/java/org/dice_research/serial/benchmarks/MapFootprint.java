@@ -0,0 +1,44 @@
+package org.dice_research.serial.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.dice_research.serial.maps.CompactImmutableMap;
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * A simple program that prints the heap footprint of a {@link HashMap} and a
+ * {@link CompactImmutableMap} containing the same entries. The footprint of
+ * the keys and values themselves is subtracted, i.e., the printed numbers are
+ * the overhead of the map implementations.
+ * 
+ * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+ *
+ */
+public class MapFootprint {
+
+    public static void main(String[] args) {
+        int[] sizes = { 1000, 100000, 1000000 };
+        System.out.println("size\tHashMap (bytes/entry)\tCompactImmutableMap (bytes/entry)");
+        for (int size : sizes) {
+            Map<BenchmarkObject, BenchmarkObject> hashMap = BenchmarkObject.createMap(size);
+            CompactImmutableMap.Builder<BenchmarkObject, BenchmarkObject> builder = new CompactImmutableMap.Builder<>(
+                    size);
+            builder.putAll(hashMap);
+            CompactImmutableMap<BenchmarkObject, BenchmarkObject> compactMap = builder.build();
+
+            Object[] elements = new Object[2 * size];
+            int pos = 0;
+            for (Map.Entry<BenchmarkObject, BenchmarkObject> entry : hashMap.entrySet()) {
+                elements[pos++] = entry.getKey();
+                elements[pos++] = entry.getValue();
+            }
+            // the keys and values are the roots of this layout (not the array itself)
+            long elementsSize = GraphLayout.parseInstance(elements).totalSize();
+            long hashMapSize = GraphLayout.parseInstance(hashMap).totalSize() - elementsSize;
+            long compactMapSize = GraphLayout.parseInstance(compactMap).totalSize() - elementsSize;
+            System.out.println(String.format("%d\t%.1f\t%.1f", size, hashMapSize / (double) size,
+                    compactMapSize / (double) size));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.dice_research.serial.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.dice_research.serial.maps.ComplexMapsModule;
+import org.dice_research.serial.maps.TypeRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Measures the latency of the first request, i.e., the first deserialization
+ * of a map in a fresh JVM. Every fork measures a single invocation without
+ * warmup. The serialized map is read from a pre-generated resource (see
+ * {@link #main(String[])}), i.e., neither the classes of the map elements nor
+ * Jackson's mapper classes are loaded before the measurement starts.
+ * <ul>
+ * <li><code>firstRequestDynamic</code>: creates the mapper and reads the map
+ * within the measured invocation. The element classes are loaded while
+ * reading.</li>
+ * <li><code>firstRequestRegistry</code>: the mapper and the deserializers of a
+ * {@link TypeRegistry} are created at startup (i.e., during the setup). Only
+ * the reading of the map is measured.</li>
+ * <li><code>startupAndFirstRequestRegistry</code>: measures the creation of
+ * the mapper and the registry together with the first request to show the
+ * overall costs.</li>
+ * </ul>
+ * 
+ * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+ *
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class StartupBenchmark {
+
+    /**
+     * The resource containing the serialized map.
+     */
+    public static final String PAYLOAD_RESOURCE = "/startup-payload.json";
+    /**
+     * The number of entries of the serialized map.
+     */
+    public static final int SIZE = 100;
+
+    /**
+     * State that only contains the serialized map.
+     */
+    @State(Scope.Benchmark)
+    public static class PayloadState {
+        private byte[] data;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            data = loadPayload();
+        }
+    }
+
+    /**
+     * State with a mapper that uses a {@link TypeRegistry} whose deserializers
+     * are created during the setup.
+     */
+    @State(Scope.Benchmark)
+    public static class RegistryState {
+        private byte[] data;
+        private ObjectMapper mapper;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            data = loadPayload();
+            mapper = createRegistryMapper();
+        }
+    }
+
+    protected static byte[] loadPayload() throws IOException {
+        try (InputStream in = StartupBenchmark.class.getResourceAsStream(PAYLOAD_RESOURCE)) {
+            if (in == null) {
+                throw new IOException("Couldn't find the resource " + PAYLOAD_RESOURCE);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int length;
+            while ((length = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    protected static ObjectMapper createRegistryMapper() {
+        TypeRegistry registry = new TypeRegistry().register(BenchmarkObject.class);
+        ObjectMapper mapper = new ObjectMapper().registerModule(new ComplexMapsModule().setTypeRegistry(registry));
+        registry.prebuildDeserializers(mapper);
+        return mapper;
+    }
+
+    @Benchmark
+    public Map<?, ?> firstRequestDynamic(PayloadState state) throws IOException {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new ComplexMapsModule());
+        return mapper.readValue(state.data, HashMap.class);
+    }
+
+    @Benchmark
+    public Map<?, ?> firstRequestRegistry(RegistryState state) throws IOException {
+        return state.mapper.readValue(state.data, HashMap.class);
+    }
+
+    @Benchmark
+    public Map<?, ?> startupAndFirstRequestRegistry(PayloadState state) throws IOException {
+        return createRegistryMapper().readValue(state.data, HashMap.class);
+    }
+
+    /**
+     * Writes the serialized map that is read by the benchmarks. It has to be
+     * executed if the format of the serialized maps changes.
+     * 
+     * @param args the path of the resource file (e.g.,
+     *             <code>jackson-extensions.benchmarks/src/main/resources/startup-payload.json</code>)
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: StartupBenchmark <payload-file>");
+            return;
+        }
+        new ObjectMapper().registerModule(new ComplexMapsModule()).writeValue(new File(args[0]),
+                BenchmarkObject.createMap(SIZE));
+    }
+}
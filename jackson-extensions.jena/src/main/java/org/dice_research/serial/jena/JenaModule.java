@@ -0,0 +1,114 @@
+package org.dice_research.serial.jena;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.jena.rdf.model.RDFNode;
+
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.deser.Deserializers;
+import com.fasterxml.jackson.databind.ser.Serializers;
+
+/**
+ * A Jackson {@link Module} that registers the (de)serializers of this package
+ * for all {@link RDFNode} types, i.e., resources, properties and literals as
+ * well as their implementations. All nodes are read with the
+ * {@link JenaRDFNodeDeserializer}, i.e., the same data leads to the same
+ * result independent of the requested node type (e.g., blank nodes are
+ * rejected for {@link org.apache.jena.rdf.model.Property} as well as for its
+ * implementation). Types that cannot be created without a model
+ * (e.g., containers or lists) are not handled by this module.
+ *
+ * The deserializer of a node type is determined only once and cached.
+ *
+ * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+ *
+ */
+public class JenaModule extends Module {
+
+    @Override
+    public String getModuleName() {
+        return getClass().getSimpleName();
+    }
+
+    @Override
+    public Version version() {
+        return Version.unknownVersion();
+    }
+
+    @Override
+    public void setupModule(SetupContext context) {
+        context.addSerializers(new JenaSerializers());
+        context.addDeserializers(new JenaDeserializers());
+    }
+
+    /**
+     * {@link Serializers} implementation that returns the
+     * {@link JenaRDFNodeSerializer} for all {@link RDFNode} types.
+     *
+     * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+     *
+     */
+    protected static class JenaSerializers extends Serializers.Base {
+
+        private JenaRDFNodeSerializer serializer = new JenaRDFNodeSerializer();
+
+        @Override
+        public JsonSerializer<?> findSerializer(SerializationConfig config, JavaType type, BeanDescription beanDesc) {
+            if (RDFNode.class.isAssignableFrom(type.getRawClass())) {
+                return serializer;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * {@link Deserializers} implementation that determines the deserializer for
+     * a node type once and caches it.
+     *
+     * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+     *
+     */
+    protected static class JenaDeserializers extends Deserializers.Base {
+
+        private Map<Class<?>, JsonDeserializer<?>> cache = new ConcurrentHashMap<>();
+
+        @Override
+        public JsonDeserializer<?> findBeanDeserializer(JavaType type, DeserializationConfig config,
+                BeanDescription beanDesc) {
+            Class<?> nodeClass = type.getRawClass();
+            if (!RDFNode.class.isAssignableFrom(nodeClass)) {
+                return null;
+            }
+            JsonDeserializer<?> deserializer = cache.get(nodeClass);
+            if (deserializer == null) {
+                deserializer = createDeserializer(nodeClass);
+                if (deserializer != null) {
+                    cache.put(nodeClass, deserializer);
+                }
+            }
+            return deserializer;
+        }
+
+        /**
+         * Creates a deserializer for the given node type.
+         *
+         * @param nodeClass the requested node type
+         * @return the deserializer or <code>null</code> if the module cannot create
+         *         instances of the given node type
+         */
+        protected JsonDeserializer<?> createDeserializer(Class<?> nodeClass) {
+            if (JenaRDFNodeDeserializer.canHandle(nodeClass)) {
+                return new JenaRDFNodeDeserializer(nodeClass);
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package org.dice_research.serial.jena;
+
+import java.io.IOException;
+
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.jena.rdf.model.AnonId;
+import org.apache.jena.rdf.model.Literal;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.ResourceFactory;
+import org.apache.jena.rdf.model.impl.LiteralImpl;
+import org.apache.jena.rdf.model.impl.PropertyImpl;
+import org.apache.jena.rdf.model.impl.ResourceImpl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+/**
+ * A deserializer for {@link RDFNode} instances that have been serialized with
+ * the {@link JenaRDFNodeSerializer}. The nodes are created with the static
+ * {@link ResourceFactory}, i.e., they are not bound to a model.
+ * 
+ * The type this deserializer handles defines which kinds of nodes are created.
+ * If it is {@link Property}, IRIs are read as properties. If it can not hold
+ * resources (e.g., {@link Literal}) or literals (e.g.,
+ * {@link org.apache.jena.rdf.model.Resource}), the deserialization of such
+ * nodes fails.
+ * 
+ * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+ *
+ */
+public class JenaRDFNodeDeserializer extends StdDeserializer<RDFNode> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Flag indicating whether IRIs are read as properties.
+     */
+    private boolean createProperties;
+    /**
+     * Flag indicating whether resources can be read.
+     */
+    private boolean allowResources;
+    /**
+     * Flag indicating whether literals can be read.
+     */
+    private boolean allowLiterals;
+
+    /**
+     * Constructor.
+     */
+    public JenaRDFNodeDeserializer() {
+        this(RDFNode.class);
+    }
+
+    /**
+     * Constructor taking additional type that this deserializer can process.
+     * 
+     * @param t Type of values this deserializer handles: sometimes exact types,
+     *          other time most specific supertype of types deserializer handles
+     *          (which may be as generic as {@link Object} in some case)
+     */
+    public JenaRDFNodeDeserializer(Class<?> t) {
+        super(t);
+        createProperties = Property.class.isAssignableFrom(t);
+        allowResources = createProperties || t.isAssignableFrom(ResourceImpl.class);
+        allowLiterals = t.isAssignableFrom(LiteralImpl.class);
+    }
+
+    /**
+     * Checks whether the given type is a type of nodes that can be created by
+     * this deserializer.
+     * 
+     * @param t the type that should be checked
+     * @return <code>true</code> if the deserializer can handle the type, else
+     *         <code>false</code>
+     */
+    public static boolean canHandle(Class<?> t) {
+        return RDFNode.class.isAssignableFrom(t)
+                && (t.isAssignableFrom(PropertyImpl.class) || t.isAssignableFrom(LiteralImpl.class));
+    }
+
+    @Override
+    public RDFNode deserialize(JsonParser parser, DeserializationContext ctxt)
+            throws IOException, JsonProcessingException {
+        if (parser.currentToken() == JsonToken.START_OBJECT) {
+            return parseLiteral(parser);
+        }
+        if (!allowResources) {
+            throw new IOException("Expected a literal but got the string \"" + parser.getText() + "\".");
+        }
+        String value = parser.getText();
+        if (value.startsWith(JenaRDFNodeSerializer.BLANK_NODE_PREFIX)) {
+            if (createProperties) {
+                throw new IOException("Expected the IRI of a property but got a blank node (\"" + value + "\").");
+            }
+            return new ResourceImpl(
+                    AnonId.create(value.substring(JenaRDFNodeSerializer.BLANK_NODE_PREFIX.length())));
+        }
+        if (createProperties) {
+            return ResourceFactory.createProperty(value);
+        } else {
+            return ResourceFactory.createResource(value);
+        }
+    }
+
+    /**
+     * Parses the object representing a literal.
+     * 
+     * @param parser the JSON parser that currently looks at the beginning of the
+     *               literal object
+     * @return the literal
+     * @throws IOException in case the parser throws an exception or the object is
+     *                     not a valid literal
+     */
+    protected Literal parseLiteral(JsonParser parser) throws IOException {
+        if (!allowLiterals) {
+            throw new IOException("Expected a resource but got a literal.");
+        }
+        String lexicalForm = null;
+        String language = null;
+        String datatype = null;
+        String fieldName;
+        while ((fieldName = parser.nextFieldName()) != null) {
+            parser.nextToken();
+            switch (fieldName) {
+            case JenaRDFNodeSerializer.LEXICAL_FORM_FIELD:
+                lexicalForm = parser.getText();
+                break;
+            case JenaRDFNodeSerializer.LANGUAGE_FIELD:
+                language = parser.getText();
+                break;
+            case JenaRDFNodeSerializer.DATATYPE_FIELD:
+                datatype = parser.getText();
+                break;
+            default:
+                // Unexpected fields will be ignored
+                parser.skipChildren();
+                break;
+            }
+        }
+        if (lexicalForm == null) {
+            throw new IOException("Got a literal without lexical form.");
+        }
+        if (language != null) {
+            return ResourceFactory.createLangLiteral(lexicalForm, language);
+        } else if (datatype != null) {
+            return ResourceFactory.createTypedLiteral(lexicalForm,
+                    TypeMapper.getInstance().getSafeTypeByName(datatype));
+        } else {
+            return ResourceFactory.createPlainLiteral(lexicalForm);
+        }
+    }
+}
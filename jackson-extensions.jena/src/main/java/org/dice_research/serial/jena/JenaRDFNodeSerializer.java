@@ -0,0 +1,79 @@
+package org.dice_research.serial.jena;
+
+import java.io.IOException;
+
+import org.apache.jena.rdf.model.Literal;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * A serializer for all {@link RDFNode} instances, i.e., resources (including
+ * properties) and literals. The nodes are represented as follows:
+ * <ul>
+ * <li>IRI resources are represented as a string comprising only the IRI (like
+ * the {@link JenaPropertySerializer} does it).</li>
+ * <li>Blank nodes are represented as a string comprising <code>"_:"</code>
+ * followed by the label of the blank node.</li>
+ * <li>Literals are represented as object with the lexical form and either the
+ * language tag or the IRI of the datatype, e.g.,
+ * <code>{"lex":"example","lang":"en"}</code> or
+ * <code>{"lex":"1","datatype":"http://www.w3.org/2001/XMLSchema#int"}</code>.</li>
+ * </ul>
+ * 
+ * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+ *
+ */
+public class JenaRDFNodeSerializer extends StdSerializer<RDFNode> {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String BLANK_NODE_PREFIX = "_:";
+    public static final String LEXICAL_FORM_FIELD = "lex";
+    public static final String LANGUAGE_FIELD = "lang";
+    public static final String DATATYPE_FIELD = "datatype";
+
+    /**
+     * Constructor.
+     */
+    public JenaRDFNodeSerializer() {
+        this(RDFNode.class);
+    }
+
+    /**
+     * Constructor taking additional type that this serializer can process.
+     * 
+     * @param t Nominal type supported, usually declared type of property for which
+     *          serializer is used.
+     * 
+     */
+    public JenaRDFNodeSerializer(Class<RDFNode> t) {
+        super(t);
+    }
+
+    @Override
+    public void serialize(RDFNode value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (value.isLiteral()) {
+            Literal literal = value.asLiteral();
+            gen.writeStartObject();
+            gen.writeStringField(LEXICAL_FORM_FIELD, literal.getLexicalForm());
+            String language = literal.getLanguage();
+            if ((language != null) && !language.isEmpty()) {
+                gen.writeStringField(LANGUAGE_FIELD, language);
+            } else if (literal.getDatatypeURI() != null) {
+                gen.writeStringField(DATATYPE_FIELD, literal.getDatatypeURI());
+            }
+            gen.writeEndObject();
+        } else {
+            Resource resource = value.asResource();
+            if (resource.isAnon()) {
+                gen.writeString(BLANK_NODE_PREFIX + resource.getId().getLabelString());
+            } else {
+                gen.writeString(resource.getURI());
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.dice_research.serial.jena;
+
+import java.io.IOException;
+
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.impl.PropertyImpl;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Checks that the {@link JenaModule} handles properties consistently for the
+ * interface and its implementation.
+ */
+public class JenaModulePropertyTest {
+
+    @Test(expected = IOException.class)
+    public void testBlankNodeAsProperty() throws IOException {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JenaModule());
+        mapper.readValue("\"_:b0\"", Property.class);
+    }
+
+    @Test(expected = IOException.class)
+    public void testBlankNodeAsPropertyImpl() throws IOException {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JenaModule());
+        mapper.readValue("\"_:b0\"", PropertyImpl.class);
+    }
+}
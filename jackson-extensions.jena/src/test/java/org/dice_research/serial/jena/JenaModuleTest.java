@@ -0,0 +1,72 @@
+package org.dice_research.serial.jena;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.rdf.model.AnonId;
+import org.apache.jena.rdf.model.Literal;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.ResourceFactory;
+import org.apache.jena.rdf.model.impl.ResourceImpl;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@RunWith(Parameterized.class)
+public class JenaModuleTest {
+
+    private RDFNode node;
+    private Class<?> requestedClass;
+
+    public JenaModuleTest(RDFNode node, Class<?> requestedClass) {
+        super();
+        this.node = node;
+        this.requestedClass = requestedClass;
+    }
+
+    @Test
+    public void test() throws IOException {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JenaModule());
+
+        String json = mapper.writeValueAsString(node);
+        Object readNode = mapper.readValue(json, requestedClass);
+
+        Assert.assertTrue("Read node has an unexpected type. JSON String: " + json,
+                requestedClass.isInstance(readNode));
+        Assert.assertEquals("Nodes differ after serialization. JSON String: " + json, node, readNode);
+    }
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        List<Object[]> testConfigs = new ArrayList<Object[]>();
+
+        Property property = ResourceFactory.createProperty("http://example.org/property/someProperty");
+        Resource resource = ResourceFactory.createResource("http://example.org/resource/someResource");
+        Resource blankNode = new ResourceImpl(AnonId.create("b0"));
+        Literal typedLiteral = ResourceFactory.createTypedLiteral("42", XSDDatatype.XSDint);
+        Literal langLiteral = ResourceFactory.createLangLiteral("example", "en");
+        Literal plainLiteral = ResourceFactory.createPlainLiteral("example");
+
+        testConfigs.add(new Object[] { property, Property.class });
+        testConfigs.add(new Object[] { property, Resource.class });
+        testConfigs.add(new Object[] { resource, Resource.class });
+        testConfigs.add(new Object[] { blankNode, Resource.class });
+        testConfigs.add(new Object[] { typedLiteral, Literal.class });
+        testConfigs.add(new Object[] { langLiteral, Literal.class });
+        testConfigs.add(new Object[] { plainLiteral, Literal.class });
+        testConfigs.add(new Object[] { resource, RDFNode.class });
+        testConfigs.add(new Object[] { blankNode, RDFNode.class });
+        testConfigs.add(new Object[] { typedLiteral, RDFNode.class });
+
+        return testConfigs;
+    }
+}
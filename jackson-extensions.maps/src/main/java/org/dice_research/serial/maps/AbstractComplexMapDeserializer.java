@@ -1,12 +1,29 @@
 package org.dice_research.serial.maps;
 
 import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationConfig;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 
@@ -14,7 +31,24 @@ import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
  * This class handles the deserialization of {@link Map} instances that have
  * been serialized with the {@link ComplexMapSerializer}. Note that the class
  * itself is abstract. Extending classes need to provide a {@link Supplier} to
- * create instances of the {@link Map} interface.
+ * create instances of the {@link Map} interface. Alternatively, the elements
+ * can be read into an existing map instance (e.g., using
+ * <code>ObjectMapper.readerForUpdating(existingMap)</code>). The way in which
+ * they are merged into this map is defined by the {@link MergeMode}. A key
+ * filter and a maximum number of elements can be used to read only a subset of
+ * the serialized elements. The values of skipped elements are not bound. Both
+ * can be defined per call with the {@link #KEY_FILTER} and
+ * {@link #MAX_ELEMENTS} attributes of the {@link DeserializationContext}, e.g.,
+ * <code>mapper.readerFor(Map.class).withAttribute(KEY_FILTER, filter)</code>.
+ * The values set with {@link #setKeyFilter(Predicate)} and
+ * {@link #setMaxElements(int)} are only used as defaults if the attributes are
+ * not present. If a {@link TypeRegistry} is set, only the key and value classes
+ * registered in it are accepted.
+ * 
+ * The main key and value classes may be defined after the array of elements
+ * (see {@link ComplexMapSerializer#setTypeTrailer(boolean)}). In this case, the
+ * first class that is explicitly defined by an element is used as main class
+ * for all following elements.
  * 
  * The main deserialization method implements a finite state automaton. States
  * are as follows:
@@ -26,9 +60,13 @@ import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
  * <li>4 = found array of map elements</li>
  * <li>5 = found undefined field. It will be ignored</li>
  * <li>6 = found start of the array of map elements</li>
+ * <li>7 = found array of removed map elements (only used by deltas)</li>
+ * <li>8 = found start of the array of removed map elements</li>
+ * <li>9 = found main element class field (only used by grouped collection
+ * values)</li>
  * </ul>
  * 
- * The {@link #parseElement(JsonParser, Class, Class, Map)} method for
+ * The {@link #parseElement(JsonParser, MainClasses, Map, Predicate)} method for
  * deserializing single map elements implements a finite state automaton. States
  * are as follows:
  * <ul>
@@ -39,8 +77,24 @@ import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
  * <li>5 = found main value field</li>
  * <li>6 = found undefined field. It will be ignored</><li>6 = array of map
  * elements started</>
+ * <li>7 = found main element class field</li>
+ * <li>8 = found collection size field</li>
+ * <li>9 = found item classes field</li>
  * </ul>
  * 
+ * Collection values that have been written by the
+ * {@link ComplexMultimapSerializer} are grouped, i.e., the element defines the
+ * size of the collection and the value is an array of items that share the
+ * main element class (see
+ * {@link #parseCollection(JsonParser, Class, Class, Class[], int)}). The
+ * collections are created with the needed capacity up to
+ * {@link #MAX_INITIAL_CAPACITY}.
+ * 
+ * The {@link #parseRemovedKey(JsonParser, Class)} method for deserializing
+ * single removed elements of a {@link MapDelta} uses the same states as
+ * {@link #parseElement(JsonParser, MainClasses, Map, Predicate)}. It does not
+ * expect a value field and ignores it if it is present.
+ * 
  * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
  *
  */
@@ -48,10 +102,67 @@ public abstract class AbstractComplexMapDeserializer<T extends Map<Object, Objec
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * The name of the {@link DeserializationContext} attribute that defines the
+     * key filter of a single call. Its value has to be a
+     * <code>Predicate&lt;Object&gt;</code>. It overrides the key filter of the
+     * deserializer (see {@link #setKeyFilter(Predicate)}).
+     */
+    public static final String KEY_FILTER = AbstractComplexMapDeserializer.class.getName() + ".keyFilter";
+    /**
+     * The name of the {@link DeserializationContext} attribute that defines the
+     * maximum number of elements that are read from a single map object during a
+     * single call. Its value has to be an {@link Integer}. It overrides the
+     * maximum of the deserializer (see {@link #setMaxElements(int)}).
+     */
+    public static final String MAX_ELEMENTS = AbstractComplexMapDeserializer.class.getName() + ".maxElements";
+    /**
+     * The maximum initial capacity of a collection value. The size of a
+     * collection is read from the data and is only used as a hint, i.e., larger
+     * collections grow while their items are added instead of reserving memory
+     * for a size that may not match the data.
+     */
+    public static final int MAX_INITIAL_CAPACITY = 1 << 12;
+
+    /**
+     * The factories that create empty collections of a given class with the
+     * capacity for a given number of items. Factories of other classes are
+     * determined once and added when they are needed for the first time.
+     */
+    private static final Map<Class<?>, IntFunction<Collection<Object>>> COLLECTION_FACTORIES =
+            new ConcurrentHashMap<>();
+    static {
+        COLLECTION_FACTORIES.put(ArrayList.class, ArrayList::new);
+        COLLECTION_FACTORIES.put(HashSet.class, size -> new HashSet<>(hashCapacity(size)));
+        COLLECTION_FACTORIES.put(LinkedHashSet.class, size -> new LinkedHashSet<>(hashCapacity(size)));
+        COLLECTION_FACTORIES.put(ArrayDeque.class, ArrayDeque::new);
+    }
+
     /**
      * The factory that is used to generate {@link Map} instances when needed.
      */
     private Supplier<T> mapFactory;
+    /**
+     * The way in which read elements are merged into an existing map (see
+     * {@link #deserialize(JsonParser, DeserializationContext, Map)}).
+     */
+    private MergeMode mergeMode = MergeMode.PUT_ALL;
+    /**
+     * An optional default filter for the keys of the elements. Elements with a
+     * key that is not accepted by the filter are skipped without binding their
+     * value.
+     */
+    private volatile Predicate<Object> keyFilter = null;
+    /**
+     * The default maximum number of elements that are read from a single map
+     * object. All remaining elements are skipped.
+     */
+    private volatile int maxElements = Integer.MAX_VALUE;
+    /**
+     * An optional registry of the classes that are allowed to be read. If it is
+     * set, class names are only resolved using this registry.
+     */
+    private TypeRegistry typeRegistry = null;
 
     /**
      * Constructor.
@@ -81,14 +192,77 @@ public abstract class AbstractComplexMapDeserializer<T extends Map<Object, Objec
     @Override
     public T deserialize(JsonParser parser, DeserializationContext ctxt) throws IOException, JsonProcessingException {
         T resultMap = mapFactory.get();
+        parseMap(parser, ctxt, resultMap, resultMap::remove);
+        return buildMap(resultMap);
+    }
+
+    /**
+     * This method is called after all elements have been read into a map that
+     * has been created by the map factory. It gives extending classes the
+     * possibility to transform the map into its final form (e.g., an immutable
+     * map). The default implementation simply returns the given map.
+     * 
+     * @param resultMap the map that has been created by the map factory and
+     *                  contains the read elements
+     * @return the map that is returned as result of the deserialization
+     * @throws IOException in case the read elements cannot be transformed into
+     *                     the final map
+     */
+    protected T buildMap(T resultMap) throws IOException {
+        return resultMap;
+    }
+
+    /**
+     * Reads the elements into the given, existing map instance (e.g., if
+     * <code>ObjectMapper.readerForUpdating(existingMap)</code> is used) instead of
+     * creating a new map. The way in which the read elements are merged into the
+     * map is defined by the {@link MergeMode} of this deserializer. Removed
+     * elements of a {@link MapDelta} are removed from the given map.
+     */
+    @Override
+    public T deserialize(JsonParser parser, DeserializationContext ctxt, T intoValue)
+            throws IOException, JsonProcessingException {
+        if (mergeMode == MergeMode.REPLACE) {
+            intoValue.clear();
+        }
+        parseMap(parser, ctxt, intoValue, intoValue::remove);
+        return intoValue;
+    }
+
+    @Override
+    public Boolean supportsUpdate(DeserializationConfig config) {
+        return Boolean.TRUE;
+    }
+
+    /**
+     * This method parses the JSON object representing a map or a
+     * {@link MapDelta}. See class description for a detailed description of its
+     * internal states.
+     * 
+     * @param parser             the JSON parser that currently looks at the
+     *                           beginning of the map object
+     * @param ctxt               the context of the current call that may define
+     *                           the {@link #KEY_FILTER} and {@link #MAX_ELEMENTS}
+     *                           attributes or <code>null</code> if the defaults of
+     *                           this deserializer should be used
+     * @param resultMap          the map to which the read elements should be
+     *                           added to
+     * @param removedKeyConsumer the consumer that gets the keys of all elements
+     *                           that are listed as removed
+     * @throws IOException in case the parser throws an exception
+     */
+    protected void parseMap(JsonParser parser, DeserializationContext ctxt, Map<Object, Object> resultMap,
+            Consumer<Object> removedKeyConsumer) throws IOException {
+        Predicate<Object> keyFilter = getKeyFilter(ctxt);
+        int maxElements = getMaxElements(ctxt);
         int state = 1;
-        Class<?> mainKeyClass = null;
-        Class<?> mainValueClass = null;
+        int readElements = 0;
+        MainClasses mainClasses = new MainClasses();
         while (state > 0) {
             JsonToken token = parser.nextToken();
             switch (token) {
             case END_ARRAY:
-                if (state == 6) {
+                if ((state == 6) || (state == 8)) {
                     state = 1;
                 } else {
                     throw new IOException("Saw an unexpected end of a JSON array (state=" + state + ").");
@@ -113,6 +287,12 @@ public abstract class AbstractComplexMapDeserializer<T extends Map<Object, Objec
                     case ComplexMapSerializer.ARRAY_FIELD:
                         state = 4;
                         break;
+                    case ComplexMapSerializer.REMOVED_ARRAY_FIELD:
+                        state = 7;
+                        break;
+                    case ComplexMapSerializer.ELEMENT_TYPE_FIELD:
+                        state = 9;
+                        break;
                     default:
                         state = 5;
                         break;
@@ -125,22 +305,32 @@ public abstract class AbstractComplexMapDeserializer<T extends Map<Object, Objec
             case START_ARRAY:
                 if (state == 4) {
                     state = 6;
+                } else if (state == 7) {
+                    state = 8;
                 } else {
                     throw new IOException("Saw an unexpected start of a JSON array (state=" + state + ").");
                 }
                 break;
             case START_OBJECT:
                 if (state == 6) {
-                    parseElement(parser, mainKeyClass, mainValueClass, resultMap);
+                    if (readElements >= maxElements) {
+                        parser.skipChildren();
+                    } else if (parseElement(parser, mainClasses, resultMap, keyFilter)) {
+                        ++readElements;
+                    }
+                } else if (state == 8) {
+                    removedKeyConsumer.accept(parseRemovedKey(parser, mainClasses.getKeyClass()));
                 } else {
                     throw new IOException("Saw an unexpected start of a JSON object (state=" + state + ").");
                 }
                 break;
             case VALUE_STRING:
                 if (state == 2) {
-                    mainKeyClass = loadClass(parser.getText());
+                    mainClasses.setKeyClass(loadClass(parser.getText()));
                 } else if (state == 3) {
-                    mainValueClass = loadClass(parser.getText());
+                    mainClasses.setValueClass(loadClass(parser.getText()));
+                } else if (state == 9) {
+                    mainClasses.setElementClass(loadClass(parser.getText()));
                     // } else {
                     // Unexpected value will be ignored
                     // throw new IOException("Saw an unexpected String value (state=" + state +
@@ -155,38 +345,48 @@ public abstract class AbstractComplexMapDeserializer<T extends Map<Object, Objec
                         "Saw an unexpected JSON token: " + parser.currentToken() + " (state = " + state + ").");
             }
         }
-        return resultMap;
     }
 
     /**
      * This method parses the single elements of the map object. See class
      * description for a detailed description of its internal states.
      * 
-     * @param parser         the JSON parser that currently looks at the beginning
-     *                       of an element object
-     * @param mainKeyClass   the class that will be assumed to be the class of the
-     *                       key of an element (if not defined otherwise within the
-     *                       element object)
-     * @param mainValueClass the class that will be assumed to be the class of the
-     *                       value of an element (if not defined otherwise within
-     *                       the element object)
-     * @param resultMap      the map to which the read element should be added to
+     * @param parser      the JSON parser that currently looks at the beginning of
+     *                    an element object
+     * @param mainClasses the classes that will be assumed to be the classes of
+     *                    the key and the value of an element (if not defined
+     *                    otherwise within the element object). If one of them is
+     *                    not known, yet, the class defined within the element
+     *                    object is used as main class.
+     * @param resultMap   the map to which the read element should be added to
+     * @param keyFilter   the filter for the key of the element or
+     *                    <code>null</code> if all elements are accepted
+     * @return <code>true</code> if the element has been added to the map or
+     *         <code>false</code> if it has been skipped because its key has not
+     *         been accepted by the key filter
      * @throws IOException in case the parser throws an exception
      */
-    protected void parseElement(JsonParser parser, Class<?> mainKeyClass, Class<?> mainValueClass,
-            Map<Object, Object> resultMap) throws IOException {
-        Class<?> localKeyClass = mainKeyClass;
-        Class<?> localValueClass = mainValueClass;
+    protected boolean parseElement(JsonParser parser, MainClasses mainClasses, Map<Object, Object> resultMap,
+            Predicate<Object> keyFilter) throws IOException {
+        Class<?> localKeyClass = mainClasses.getKeyClass();
+        Class<?> localValueClass = mainClasses.getValueClass();
+        Class<?> localElementClass = mainClasses.getElementClass();
+        Class<?>[] itemClasses = null;
+        int collectionSize = -1;
         Object key = null;
         Object value = null;
+        boolean keyAccepted = true;
         int state = 1;
         while (true) {
             JsonToken token = parser.nextToken();
             switch (token) {
             case END_OBJECT:
                 if (state == 1) {
-                    resultMap.put(key, value);
-                    return;
+                    if (keyAccepted) {
+                        storeElement(key, value, resultMap);
+                        return true;
+                    }
+                    return false;
                 } else {
                     throw new IOException("Saw an unexpected end of a JSON object (state=" + state + ").");
                 }
@@ -205,6 +405,15 @@ public abstract class AbstractComplexMapDeserializer<T extends Map<Object, Objec
                     case ComplexMapSerializer.VALUE_FIELD:
                         state = 5;
                         break;
+                    case ComplexMapSerializer.ELEMENT_TYPE_FIELD:
+                        state = 7;
+                        break;
+                    case ComplexMapSerializer.SIZE_FIELD:
+                        state = 8;
+                        break;
+                    case ComplexMapSerializer.ITEM_TYPES_FIELD:
+                        state = 9;
+                        break;
                     default:
                         state = 6;
                         break;
@@ -217,8 +426,13 @@ public abstract class AbstractComplexMapDeserializer<T extends Map<Object, Objec
             case START_OBJECT:
                 if (state == 4) {
                     key = parser.readValueAs(localKeyClass);
+                    keyAccepted = isKeyAccepted(key, keyFilter);
                 } else if (state == 5) {
-                    value = parser.readValueAs(localValueClass);
+                    if (keyAccepted) {
+                        value = parser.readValueAs(localValueClass);
+                    } else {
+                        parser.skipChildren();
+                    }
                 } else {
                     throw new IOException("Saw an unexpected start of a JSON object (state=" + state + ").");
                 }
@@ -228,15 +442,30 @@ public abstract class AbstractComplexMapDeserializer<T extends Map<Object, Objec
                 switch (state) {
                 case 2:
                     localKeyClass = loadClass(parser.getText());
+                    if (mainClasses.getKeyClass() == null) {
+                        mainClasses.setKeyClass(localKeyClass);
+                    }
                     break;
                 case 3:
                     localValueClass = loadClass(parser.getText());
+                    if (mainClasses.getValueClass() == null) {
+                        mainClasses.setValueClass(localValueClass);
+                    }
+                    break;
+                case 7:
+                    localElementClass = loadClass(parser.getText());
+                    if (mainClasses.getElementClass() == null) {
+                        mainClasses.setElementClass(localElementClass);
+                    }
                     break;
                 case 4:
                     key = parser.readValueAs(localKeyClass);
+                    keyAccepted = isKeyAccepted(key, keyFilter);
                     break;
                 case 5:
-                    value = parser.readValueAs(localValueClass);
+                    if (keyAccepted) {
+                        value = parser.readValueAs(localValueClass);
+                    }
                     break;
                 default:
                     /* Unexpected value will be ignored */ break;
@@ -245,15 +474,320 @@ public abstract class AbstractComplexMapDeserializer<T extends Map<Object, Objec
                 break;
             case START_ARRAY:
                 if (state == 5) {
-                    value = parser.readValueAs(localValueClass);
+                    if (!keyAccepted) {
+                        parser.skipChildren();
+                    } else if (collectionSize >= 0) {
+                        value = parseCollection(parser, localValueClass, localElementClass, itemClasses,
+                                collectionSize);
+                    } else {
+                        value = parser.readValueAs(localValueClass);
+                    }
+                } else if (state == 9) {
+                    if (keyAccepted) {
+                        itemClasses = parseItemClasses(parser, collectionSize);
+                    } else {
+                        // The item classes of a skipped element are neither needed nor loaded
+                        parser.skipChildren();
+                    }
                 } else {
                     throw new IOException("Saw an unexpected start of a JSON array (state=" + state + ").");
                 }
                 state = 1;
                 break;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+            case VALUE_NULL:
+            case VALUE_EMBEDDED_OBJECT:
+                // Scalar keys and values, e.g., numbers or binary data of binary formats.
+                // Null is not bound since the main class may not be known, yet.
+                if (state == 4) {
+                    key = (token == JsonToken.VALUE_NULL) ? null : parser.readValueAs(localKeyClass);
+                    keyAccepted = isKeyAccepted(key, keyFilter);
+                } else if ((state == 8) && (token == JsonToken.VALUE_NUMBER_INT)) {
+                    collectionSize = parser.getIntValue();
+                } else if ((state == 5) && keyAccepted) {
+                    value = (token == JsonToken.VALUE_NULL) ? null : parser.readValueAs(localValueClass);
+                }
+                // Other unexpected values will be ignored
+                state = 1;
+                break;
             default:
-                // NOT_AVAILABLE, VALUE_NUMBER_FLOAT, VALUE_NUMBER_INT, VALUE_FALSE, VALUE_TRUE,
-                // VALUE_EMBEDDED_OBJECT, VALUE_NULL, START_ARRAY, END_ARRAY
+                // NOT_AVAILABLE, END_ARRAY
+                throw new IOException(
+                        "Saw an unexpected JSON token: " + parser.currentToken() + " (state = " + state + ").");
+            }
+        }
+    }
+
+    /**
+     * Parses the array of item classes of a grouped collection value. An empty
+     * string marks an item that has the main element class.
+     * 
+     * @param parser the JSON parser that currently looks at the beginning of the
+     *               array
+     * @param size   the size of the collection or -1 if it is not known. It is
+     *               only used as a capacity hint.
+     * @return the classes of the single items (<code>null</code> for items with
+     *         the main element class)
+     * @throws IOException in case the parser throws an exception, the array
+     *                     contains unexpected tokens or a class cannot be loaded
+     */
+    protected Class<?>[] parseItemClasses(JsonParser parser, int size) throws IOException {
+        List<Class<?>> itemClasses = new ArrayList<>(initialCapacity(size));
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.VALUE_STRING) {
+                throw new IOException("Saw an unexpected JSON token within the item classes: " + token + ".");
+            }
+            String className = parser.getText();
+            itemClasses.add(className.isEmpty() ? null : loadClass(className));
+        }
+        return itemClasses.toArray(new Class<?>[itemClasses.size()]);
+    }
+
+    /**
+     * Parses the array of items of a grouped collection value and adds them to a
+     * collection that is created with the given size as capacity hint.
+     * 
+     * @param parser          the JSON parser that currently looks at the
+     *                        beginning of the array
+     * @param collectionClass the class of the collection
+     * @param elementClass    the main class of the items
+     * @param itemClasses     the classes of single items that differ from the
+     *                        main class or <code>null</code> if all items have
+     *                        the main class
+     * @param size            the size of the collection as written in the data.
+     *                        It is only used as a capacity hint.
+     * @return the collection containing the read items
+     * @throws IOException in case the parser throws an exception or the class of
+     *                     an item is not known
+     */
+    protected Collection<Object> parseCollection(JsonParser parser, Class<?> collectionClass, Class<?> elementClass,
+            Class<?>[] itemClasses, int size) throws IOException {
+        Collection<Object> collection = createCollection(collectionClass, initialCapacity(size));
+        int itemId = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new IOException("Saw an unexpected end of the input within a collection value.");
+            }
+            Class<?> itemClass = ((itemClasses != null) && (itemId < itemClasses.length)
+                    && (itemClasses[itemId] != null)) ? itemClasses[itemId] : elementClass;
+            if (token == JsonToken.VALUE_NULL) {
+                collection.add(null);
+            } else if (itemClass == null) {
+                throw new IOException("Couldn't determine the class of item " + itemId + " of a collection value.");
+            } else {
+                collection.add(parser.readValueAs(itemClass));
+            }
+            ++itemId;
+        }
+        return collection;
+    }
+
+    /**
+     * Creates an empty collection of the given class that has the capacity for
+     * the given number of items. Common collection classes are created directly,
+     * other classes with their public default constructor. If the class does not
+     * offer such a constructor (e.g., immutable collections), a {@link List},
+     * {@link Set} or {@link Queue} implementation is created instead. Note that a
+     * {@link SortedSet} without such a constructor is replaced by a
+     * {@link TreeSet} that uses the natural ordering of its items, i.e., a
+     * comparator of the serialized set is lost. The way in which the collection
+     * is created is determined only once per class (see
+     * {@link #createCollectionFactory(Class)}).
+     * 
+     * @param collectionClass the class of the collection
+     * @param size            the number of items that will be added
+     * @return the created collection
+     */
+    protected Collection<Object> createCollection(Class<?> collectionClass, int size) {
+        if (collectionClass == null) {
+            return new ArrayList<>(size);
+        }
+        return COLLECTION_FACTORIES
+                .computeIfAbsent(collectionClass, AbstractComplexMapDeserializer::createCollectionFactory).apply(size);
+    }
+
+    /**
+     * Creates the factory for collections of the given class. If the class is a
+     * non-abstract {@link Collection} with a public default constructor, the
+     * factory uses this constructor. Otherwise, it creates the replacement
+     * described in {@link #createCollection(Class, int)}.
+     * 
+     * @param collectionClass the class of the collection
+     * @return the factory that creates collections with the capacity for a given
+     *         number of items
+     */
+    @SuppressWarnings("unchecked")
+    protected static IntFunction<Collection<Object>> createCollectionFactory(Class<?> collectionClass) {
+        IntFunction<Collection<Object>> replacement;
+        if (SortedSet.class.isAssignableFrom(collectionClass)) {
+            replacement = size -> new TreeSet<>();
+        } else if (Set.class.isAssignableFrom(collectionClass)) {
+            replacement = size -> new LinkedHashSet<>(hashCapacity(size));
+        } else if (Queue.class.isAssignableFrom(collectionClass) && !List.class.isAssignableFrom(collectionClass)) {
+            replacement = ArrayDeque::new;
+        } else {
+            replacement = ArrayList::new;
+        }
+        if (Collection.class.isAssignableFrom(collectionClass) && !collectionClass.isInterface()
+                && !Modifier.isAbstract(collectionClass.getModifiers())) {
+            try {
+                Constructor<?> constructor = collectionClass.getConstructor();
+                return size -> {
+                    try {
+                        return (Collection<Object>) constructor.newInstance();
+                    } catch (ReflectiveOperationException e) {
+                        return replacement.apply(size);
+                    }
+                };
+            } catch (NoSuchMethodException | SecurityException e) {
+                // use the replacement
+            }
+        }
+        return replacement;
+    }
+
+    /**
+     * Turns the size of a collection that has been read from the data into an
+     * initial capacity that is at least 0 and at most
+     * {@link #MAX_INITIAL_CAPACITY}. This ensures that a large size within a
+     * small payload does not lead to a large allocation.
+     * 
+     * @param size the size read from the data
+     * @return the initial capacity of the collection
+     */
+    protected static int initialCapacity(int size) {
+        return Math.max(0, Math.min(size, MAX_INITIAL_CAPACITY));
+    }
+
+    /**
+     * Calculates the initial capacity of a hash-based collection that should
+     * hold the given number of items without being resized.
+     * 
+     * @param size the number of items
+     * @return the initial capacity
+     */
+    protected static int hashCapacity(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+
+    /**
+     * Checks whether the given key is accepted by the given key filter.
+     * 
+     * @param key       the key that should be checked
+     * @param keyFilter the key filter or <code>null</code> if all keys are
+     *                  accepted
+     * @return <code>true</code> if there is no key filter or if the key filter
+     *         accepts the given key, else <code>false</code>
+     */
+    protected boolean isKeyAccepted(Object key, Predicate<Object> keyFilter) {
+        return (keyFilter == null) || keyFilter.test(key);
+    }
+
+    /**
+     * Adds the given element to the given map with respect to the
+     * {@link MergeMode} of this deserializer.
+     * 
+     * @param key       the key of the element
+     * @param value     the value of the element
+     * @param resultMap the map to which the element should be added to
+     */
+    protected void storeElement(Object key, Object value, Map<Object, Object> resultMap) {
+        if (mergeMode == MergeMode.PUT_IF_ABSENT) {
+            resultMap.putIfAbsent(key, value);
+        } else {
+            resultMap.put(key, value);
+        }
+    }
+
+    /**
+     * This method parses a single element of the array of removed elements of a
+     * {@link MapDelta}. Such an element comprises only a key and, optionally, its
+     * class. See class description for a detailed description of its internal
+     * states.
+     * 
+     * @param parser       the JSON parser that currently looks at the beginning of
+     *                     an element object
+     * @param mainKeyClass the class that will be assumed to be the class of the
+     *                     key of an element (if not defined otherwise within the
+     *                     element object)
+     * @return the key of the removed element
+     * @throws IOException in case the parser throws an exception
+     */
+    protected Object parseRemovedKey(JsonParser parser, Class<?> mainKeyClass) throws IOException {
+        Class<?> localKeyClass = mainKeyClass;
+        Object key = null;
+        int state = 1;
+        while (true) {
+            JsonToken token = parser.nextToken();
+            switch (token) {
+            case END_OBJECT:
+                if (state == 1) {
+                    return key;
+                } else {
+                    throw new IOException("Saw an unexpected end of a JSON object (state=" + state + ").");
+                }
+            case FIELD_NAME:
+                if (state == 1) {
+                    switch (parser.getCurrentName()) {
+                    case ComplexMapSerializer.KEY_TYPE_FIELD:
+                        state = 2;
+                        break;
+                    case ComplexMapSerializer.KEY_FIELD:
+                        state = 4;
+                        break;
+                    default:
+                        state = 6;
+                        break;
+                    }
+                } else {
+                    throw new IOException("Found a field with the name " + parser.getCurrentName()
+                            + " in an unexpected position (state=" + state + ").");
+                }
+                break;
+            case START_OBJECT:
+            case START_ARRAY:
+                if (state == 4) {
+                    key = parser.readValueAs(localKeyClass);
+                } else if (state == 6) {
+                    parser.skipChildren();
+                } else {
+                    throw new IOException("Saw an unexpected start of a JSON structure (state=" + state + ").");
+                }
+                state = 1;
+                break;
+            case VALUE_STRING:
+                switch (state) {
+                case 2:
+                    localKeyClass = loadClass(parser.getText());
+                    break;
+                case 4:
+                    key = parser.readValueAs(localKeyClass);
+                    break;
+                default:
+                    /* Unexpected value will be ignored */ break;
+                }
+                state = 1;
+                break;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+            case VALUE_NULL:
+            case VALUE_EMBEDDED_OBJECT:
+                // Scalar keys, e.g., numbers or binary data of binary formats
+                if (state == 4) {
+                    key = (token == JsonToken.VALUE_NULL) ? null : parser.readValueAs(localKeyClass);
+                }
+                // Other unexpected values will be ignored
+                state = 1;
+                break;
+            default:
+                // NOT_AVAILABLE, END_ARRAY
                 throw new IOException(
                         "Saw an unexpected JSON token: " + parser.currentToken() + " (state = " + state + ").");
             }
@@ -262,18 +796,207 @@ public abstract class AbstractComplexMapDeserializer<T extends Map<Object, Objec
 
     /**
      * This method tries to get a {@link Class} object for the given class name.
+     * If a {@link TypeRegistry} is set, the class is only looked up in the
+     * registry. Otherwise, it is loaded using the class loader of this class.
+     * Note that array classes (e.g., <code>[B</code> for <code>byte[]</code>) are
+     * supported as well.
      * 
      * @param className the name of the class that should be loaded
      * @return the {@link Class} object representing this class
-     * @throws IOException in case the class couldn't be identified
+     * @throws IOException in case the class couldn't be identified or is not
+     *                     registered
      */
     protected Class<?> loadClass(String className) throws IOException {
+        if (typeRegistry != null) {
+            Class<?> clazz = typeRegistry.getRegisteredClass(className);
+            if (clazz == null) {
+                throw new IOException("The class \"" + className + "\" is not allowed since it is not registered.");
+            }
+            return clazz;
+        }
         try {
-            return this.getClass().getClassLoader().loadClass(className);
+            return Class.forName(className, false, this.getClass().getClassLoader());
         } catch (Exception e) {
             e.printStackTrace();
             throw new IOException("Couldn't find a class with the given class name (\"" + className + "\")", e);
         }
     }
 
+    /**
+     * @return the way in which read elements are merged into an existing map
+     */
+    public MergeMode getMergeMode() {
+        return mergeMode;
+    }
+
+    /**
+     * @param mergeMode the way in which read elements are merged into an existing
+     *                  map
+     */
+    public void setMergeMode(MergeMode mergeMode) {
+        this.mergeMode = mergeMode;
+    }
+
+    /**
+     * @return the default filter for the keys of the elements or
+     *         <code>null</code> if all elements are read
+     */
+    public Predicate<Object> getKeyFilter() {
+        return keyFilter;
+    }
+
+    /**
+     * Returns the key filter of a single call, i.e., the {@link #KEY_FILTER}
+     * attribute of the given context or the default filter of this deserializer
+     * if the attribute is not present.
+     * 
+     * @param ctxt the context of the current call or <code>null</code>
+     * @return the filter for the keys of the elements or <code>null</code> if all
+     *         elements are read
+     */
+    @SuppressWarnings("unchecked")
+    protected Predicate<Object> getKeyFilter(DeserializationContext ctxt) {
+        Object attribute = (ctxt == null) ? null : ctxt.getAttribute(KEY_FILTER);
+        return (attribute == null) ? keyFilter : (Predicate<Object>) attribute;
+    }
+
+    /**
+     * Sets the default filter for the keys of the elements. Elements with a key
+     * that is not accepted by the filter are skipped, i.e., their values are not
+     * bound. Note that this only works if the key field of an element is written
+     * before its value field (which is the case for the
+     * {@link ComplexMapSerializer}). Since the deserializer is shared by all
+     * calls of a mapper, a filter for a single call should be defined with the
+     * {@link #KEY_FILTER} attribute instead.
+     * 
+     * @param keyFilter the filter for the keys of the elements or
+     *                  <code>null</code> if all elements should be read
+     */
+    public void setKeyFilter(Predicate<Object> keyFilter) {
+        this.keyFilter = keyFilter;
+    }
+
+    /**
+     * @return the default maximum number of elements that are read from a single
+     *         map object
+     */
+    public int getMaxElements() {
+        return maxElements;
+    }
+
+    /**
+     * Returns the maximum number of elements of a single call, i.e., the
+     * {@link #MAX_ELEMENTS} attribute of the given context or the default
+     * maximum of this deserializer if the attribute is not present.
+     * 
+     * @param ctxt the context of the current call or <code>null</code>
+     * @return the maximum number of elements that are read from a single map
+     *         object
+     */
+    protected int getMaxElements(DeserializationContext ctxt) {
+        Object attribute = (ctxt == null) ? null : ctxt.getAttribute(MAX_ELEMENTS);
+        return (attribute == null) ? maxElements : ((Number) attribute).intValue();
+    }
+
+    /**
+     * Sets the default maximum number of elements that are read from a single
+     * map object. Elements that are skipped by the key filter are not counted.
+     * After this number of elements has been read, all remaining elements of the
+     * map object are skipped. A maximum for a single call should be defined with
+     * the {@link #MAX_ELEMENTS} attribute instead.
+     * 
+     * @param maxElements the maximum number of elements that are read from a
+     *                    single map object
+     */
+    public void setMaxElements(int maxElements) {
+        this.maxElements = maxElements;
+    }
+
+    /**
+     * @return the registry of the classes that are allowed to be read or
+     *         <code>null</code> if all classes are loaded
+     */
+    public TypeRegistry getTypeRegistry() {
+        return typeRegistry;
+    }
+
+    /**
+     * Sets the registry of the classes that are allowed to be read. If it is
+     * set, the deserializer fails on all class names that are not registered
+     * instead of loading them.
+     * 
+     * @param typeRegistry the registry of the classes that are allowed to be read
+     *                     or <code>null</code> if all classes should be loaded
+     */
+    public void setTypeRegistry(TypeRegistry typeRegistry) {
+        this.typeRegistry = typeRegistry;
+    }
+
+    /**
+     * A simple structure holding the main key and value classes of a single map
+     * object while it is parsed.
+     * 
+     * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+     *
+     */
+    protected static class MainClasses {
+        /**
+         * The main class of the keys.
+         */
+        private Class<?> keyClass = null;
+        /**
+         * The main class of the values.
+         */
+        private Class<?> valueClass = null;
+        /**
+         * The main class of the items of collection values.
+         */
+        private Class<?> elementClass = null;
+
+        /**
+         * @return the main class of the keys or <code>null</code> if it is not
+         *         known, yet
+         */
+        public Class<?> getKeyClass() {
+            return keyClass;
+        }
+
+        /**
+         * @param keyClass the main class of the keys
+         */
+        public void setKeyClass(Class<?> keyClass) {
+            this.keyClass = keyClass;
+        }
+
+        /**
+         * @return the main class of the values or <code>null</code> if it is not
+         *         known, yet
+         */
+        public Class<?> getValueClass() {
+            return valueClass;
+        }
+
+        /**
+         * @param valueClass the main class of the values
+         */
+        public void setValueClass(Class<?> valueClass) {
+            this.valueClass = valueClass;
+        }
+
+        /**
+         * @return the main class of the items of collection values or
+         *         <code>null</code> if it is not known, yet
+         */
+        public Class<?> getElementClass() {
+            return elementClass;
+        }
+
+        /**
+         * @param elementClass the main class of the items of collection values
+         */
+        public void setElementClass(Class<?> elementClass) {
+            this.elementClass = elementClass;
+        }
+    }
+
 }
@@ -0,0 +1,453 @@
+package org.dice_research.serial.maps;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable {@link Map} implementation that needs much less memory than a
+ * {@link java.util.HashMap} since it does not create a node object for every
+ * entry. Keys and values are stored in two parallel arrays while an
+ * open-addressing hash table (with linear probing) stores the positions of the
+ * keys within these arrays. The iteration order is the insertion order of the
+ * entries.
+ *
+ * Instances of this class can only be created with a {@link Builder}, which is
+ * a separate, mutable {@link Map} implementation. All methods that would
+ * change the map throw an {@link UnsupportedOperationException}.
+ *
+ * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+ *
+ * @param <K> the type of the keys of the map
+ * @param <V> the type of the values of the map
+ */
+public class CompactImmutableMap<K, V> extends AbstractMap<K, V> {
+
+    /**
+     * The keys of the map.
+     */
+    private final Object[] keys;
+    /**
+     * The values of the map (using the same positions as their keys).
+     */
+    private final Object[] values;
+    /**
+     * The number of entries of the map.
+     */
+    private final int size;
+    /**
+     * The hash table containing the positions of the keys increased by 1 (0
+     * marks an empty cell). Its length is always a power of 2.
+     */
+    private final int[] table;
+    /**
+     * Lazily created entry set.
+     */
+    private Set<Entry<K, V>> entrySet = null;
+
+    /**
+     * Constructor.
+     *
+     * @param keys   the keys of the map
+     * @param values the values of the map
+     * @param size   the number of entries of the map
+     * @param table  the hash table containing the positions of the keys
+     */
+    private CompactImmutableMap(Object[] keys, Object[] values, int size, int[] table) {
+        this.keys = keys;
+        this.values = values;
+        this.size = size;
+        this.table = table;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key, keys, table) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V get(Object key) {
+        int index = indexOf(key, keys, table);
+        return (index >= 0) ? (V) values[index] : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < size; ++i) {
+            action.accept((K) keys[i], (V) values[i]);
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    /**
+     * Determines the position of the given key.
+     *
+     * @param key   the key that should be searched for
+     * @param keys  the array of keys
+     * @param table the hash table containing the positions of the keys
+     * @return the position of the key in the keys array or -1 if the array does
+     *         not contain the key
+     */
+    protected static int indexOf(Object key, Object[] keys, int[] table) {
+        int mask = table.length - 1;
+        int cell = hash(key) & mask;
+        int index;
+        while ((index = table[cell]) != 0) {
+            if (Objects.equals(key, keys[index - 1])) {
+                return index - 1;
+            }
+            cell = (cell + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Calculates the hash value of the given key (similar to
+     * {@link java.util.HashMap}).
+     *
+     * @param key the key for which the hash should be calculated
+     * @return the hash value of the key
+     */
+    protected static int hash(Object key) {
+        int h;
+        return (key == null) ? 0 : (h = key.hashCode()) ^ (h >>> 16);
+    }
+
+    /**
+     * Adds the given position of a key to the hash table.
+     *
+     * @param table the hash table
+     * @param key   the key
+     * @param index the position of the key
+     */
+    protected static void addToTable(int[] table, Object key, int index) {
+        int mask = table.length - 1;
+        int cell = hash(key) & mask;
+        while (table[cell] != 0) {
+            cell = (cell + 1) & mask;
+        }
+        table[cell] = index + 1;
+    }
+
+    /**
+     * Creates a hash table for the given keys.
+     *
+     * @param keys     the keys of the map
+     * @param size     the number of keys
+     * @param capacity the length of the table (has to be a power of 2 that is
+     *                 larger than the number of keys)
+     * @return the hash table containing the positions of the keys increased by 1
+     */
+    protected static int[] createTable(Object[] keys, int size, int capacity) {
+        int[] table = new int[capacity];
+        for (int i = 0; i < size; ++i) {
+            addToTable(table, keys[i], i);
+        }
+        return table;
+    }
+
+    /**
+     * Determines the length of a hash table for the given number of keys, which
+     * ensures a load factor of at most 2/3.
+     *
+     * @param size the number of keys
+     * @return the length of the hash table
+     */
+    protected static int tableCapacity(int size) {
+        int minCapacity = Math.max(2, size + (size >> 1) + 1);
+        return Integer.highestOneBit(minCapacity - 1) << 1;
+    }
+
+    /**
+     * The entry set of the map, which is backed by the key and value arrays.
+     *
+     * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+     *
+     */
+    protected class EntrySet extends AbstractSet<Entry<K, V>> {
+
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new Iterator<Entry<K, V>>() {
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < size;
+                }
+
+                @SuppressWarnings("unchecked")
+                @Override
+                public Entry<K, V> next() {
+                    if (next >= size) {
+                        throw new NoSuchElementException();
+                    }
+                    Entry<K, V> entry = new SimpleImmutableEntry<>((K) keys[next], (V) values[next]);
+                    ++next;
+                    return entry;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            int index = indexOf(entry.getKey(), keys, table);
+            return (index >= 0) && Objects.equals(values[index], entry.getValue());
+        }
+    }
+
+    /**
+     * A builder for {@link CompactImmutableMap} instances. The builder itself is
+     * a mutable {@link Map} with the same internal structure (but it is not a
+     * {@link CompactImmutableMap}), which makes it possible to fill it like any
+     * other map before {@link #build()} creates the immutable map with arrays
+     * that have exactly the needed size. Removed entries are only marked as
+     * removed and are dropped when the arrays are compacted, i.e., when the hash
+     * table would have to grow or when the map is built.
+     *
+     * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+     *
+     * @param <K> the type of the keys of the map
+     * @param <V> the type of the values of the map
+     */
+    public static class Builder<K, V> extends AbstractMap<K, V> {
+
+        /**
+         * Marker for the key of a removed entry.
+         */
+        private static final Object REMOVED = new Object();
+
+        /**
+         * The keys of the map (including removed keys).
+         */
+        private Object[] keys;
+        /**
+         * The values of the map (using the same positions as their keys).
+         */
+        private Object[] values;
+        /**
+         * The number of used positions in the arrays (including removed entries).
+         */
+        private int slots = 0;
+        /**
+         * The number of entries of the map.
+         */
+        private int size = 0;
+        /**
+         * The hash table containing the positions of the keys increased by 1 (0
+         * marks an empty cell). Its length is always a power of 2.
+         */
+        private int[] table;
+        /**
+         * Lazily created entry set.
+         */
+        private Set<Entry<K, V>> entrySet = null;
+
+        /**
+         * Constructor.
+         */
+        public Builder() {
+            this(16);
+        }
+
+        /**
+         * Constructor.
+         *
+         * @param expectedSize the expected number of entries
+         */
+        public Builder(int expectedSize) {
+            keys = new Object[Math.max(1, expectedSize)];
+            values = new Object[Math.max(1, expectedSize)];
+            table = new int[tableCapacity(expectedSize)];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return indexOf(key, keys, table) >= 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public V get(Object key) {
+            int index = indexOf(key, keys, table);
+            return (index >= 0) ? (V) values[index] : null;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public V put(K key, V value) {
+            int index = indexOf(key, keys, table);
+            if (index >= 0) {
+                V oldValue = (V) values[index];
+                values[index] = value;
+                return oldValue;
+            }
+            if (tableCapacity(slots + 1) > table.length) {
+                // Drop removed entries if they take a considerable part of the table
+                if ((slots - size) > (slots >> 2)) {
+                    compact();
+                }
+                if (tableCapacity(slots + 1) > table.length) {
+                    table = createTable(keys, slots, tableCapacity(slots + 1));
+                }
+            }
+            if (slots == keys.length) {
+                keys = Arrays.copyOf(keys, slots << 1);
+                values = Arrays.copyOf(values, slots << 1);
+            }
+            keys[slots] = key;
+            values[slots] = value;
+            addToTable(table, key, slots);
+            ++slots;
+            ++size;
+            return null;
+        }
+
+        /**
+         * Removes the entry with the given key. The entry is only marked as
+         * removed, i.e., the operation does not need to rebuild the hash table.
+         */
+        @SuppressWarnings("unchecked")
+        @Override
+        public V remove(Object key) {
+            int index = indexOf(key, keys, table);
+            if (index < 0) {
+                return null;
+            }
+            V oldValue = (V) values[index];
+            keys[index] = REMOVED;
+            values[index] = null;
+            --size;
+            return oldValue;
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(keys, 0, slots, null);
+            Arrays.fill(values, 0, slots, null);
+            Arrays.fill(table, 0);
+            slots = 0;
+            size = 0;
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            if (entrySet == null) {
+                entrySet = new BuilderEntrySet();
+            }
+            return entrySet;
+        }
+
+        /**
+         * Moves all entries that have not been removed to the beginning of the
+         * arrays (keeping their order) and rebuilds the hash table.
+         */
+        protected void compact() {
+            int target = 0;
+            for (int i = 0; i < slots; ++i) {
+                if (keys[i] != REMOVED) {
+                    keys[target] = keys[i];
+                    values[target] = values[i];
+                    ++target;
+                }
+            }
+            Arrays.fill(keys, target, slots, null);
+            Arrays.fill(values, target, slots, null);
+            slots = target;
+            table = createTable(keys, slots, table.length);
+        }
+
+        /**
+         * Creates an immutable map containing the current entries of this builder.
+         *
+         * @return the created map
+         */
+        public CompactImmutableMap<K, V> build() {
+            if (slots > size) {
+                compact();
+            }
+            int capacity = tableCapacity(size);
+            return new CompactImmutableMap<>(Arrays.copyOf(keys, size), Arrays.copyOf(values, size), size,
+                    (capacity == table.length) ? Arrays.copyOf(table, capacity)
+                            : createTable(keys, size, capacity));
+        }
+
+        /**
+         * The entry set of the builder, which skips removed entries.
+         *
+         * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+         *
+         */
+        protected class BuilderEntrySet extends AbstractSet<Entry<K, V>> {
+
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new Iterator<Entry<K, V>>() {
+                    private int next = skipRemoved(0);
+
+                    private int skipRemoved(int position) {
+                        while ((position < slots) && (keys[position] == REMOVED)) {
+                            ++position;
+                        }
+                        return position;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < slots;
+                    }
+
+                    @SuppressWarnings("unchecked")
+                    @Override
+                    public Entry<K, V> next() {
+                        if (next >= slots) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<K, V> entry = new SimpleImmutableEntry<>((K) keys[next], (V) values[next]);
+                        next = skipRemoved(next + 1);
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        }
+    }
+}
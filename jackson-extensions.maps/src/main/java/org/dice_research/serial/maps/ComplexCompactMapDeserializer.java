@@ -0,0 +1,41 @@
+package org.dice_research.serial.maps;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.DeserializationConfig;
+
+/**
+ * Implementation of the {@link AbstractComplexMapDeserializer} which creates
+ * {@link CompactImmutableMap} instances. The elements are read into a
+ * {@link CompactImmutableMap.Builder}, which is turned into the immutable map
+ * after the array of elements has been read. Since the created maps are
+ * immutable, this deserializer does not support reading into existing map
+ * instances.
+ * 
+ * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+ *
+ */
+public class ComplexCompactMapDeserializer extends AbstractComplexMapDeserializer<Map<Object, Object>> {
+
+    private static final long serialVersionUID = 1L;
+
+    public ComplexCompactMapDeserializer() {
+        this(CompactImmutableMap.class);
+    }
+
+    public ComplexCompactMapDeserializer(Class<?> t) {
+        super(CompactImmutableMap.Builder::new, t);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected Map<Object, Object> buildMap(Map<Object, Object> resultMap) {
+        return ((CompactImmutableMap.Builder<Object, Object>) resultMap).build();
+    }
+
+    @Override
+    public Boolean supportsUpdate(DeserializationConfig config) {
+        return Boolean.FALSE;
+    }
+
+}
@@ -0,0 +1,65 @@
+package org.dice_research.serial.maps;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Implementation of the {@link AbstractComplexMapDeserializer} which creates
+ * {@link EnumMap} instances. An {@link EnumMap} cannot be created without the
+ * class of its keys. If this class is known (e.g., from the requested type
+ * <code>EnumMap&lt;TimeUnit, String&gt;</code>), the elements are read
+ * directly into an {@link EnumMap} of this class. Otherwise, they are read into
+ * a {@link LinkedHashMap}, which is turned into an {@link EnumMap} after the
+ * array of elements has been read. In the latter case, the key class is taken
+ * from the read keys, i.e., an empty map cannot be read.
+ * 
+ * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+ *
+ */
+public class ComplexEnumMapDeserializer extends AbstractComplexMapDeserializer<Map<Object, Object>> {
+
+    private static final long serialVersionUID = 1L;
+
+    public ComplexEnumMapDeserializer() {
+        this(null);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param keyClass the enum class of the keys or <code>null</code> if it is
+     *                 not known
+     */
+    public ComplexEnumMapDeserializer(Class<?> keyClass) {
+        super(createFactory(keyClass), EnumMap.class);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Supplier<Map<Object, Object>> createFactory(Class<?> keyClass) {
+        if ((keyClass != null) && keyClass.isEnum()) {
+            return () -> new EnumMap(keyClass);
+        }
+        return LinkedHashMap::new;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @Override
+    protected Map<Object, Object> buildMap(Map<Object, Object> resultMap) throws IOException {
+        if (resultMap instanceof EnumMap) {
+            return resultMap;
+        }
+        if (resultMap.isEmpty()) {
+            throw new IOException(
+                    "Couldn't determine the key class of an empty EnumMap. Please request the map with its key type.");
+        }
+        try {
+            return new EnumMap(resultMap);
+        } catch (ClassCastException | NullPointerException e) {
+            throw new IOException("Couldn't create an EnumMap since the keys are no constants of a single enum.", e);
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+package org.dice_research.serial.maps;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+/**
+ * This class handles the deserialization of {@link MapDelta} instances that
+ * have been serialized with the {@link ComplexMapDeltaSerializer}. The read
+ * delta can be applied to an existing map using
+ * {@link MapDelta#applyTo(java.util.Map)}.
+ *
+ * Note that the {@link AbstractComplexMapDeserializer} implementations
+ * understand the delta format as well, i.e., a serialized delta can also be
+ * read directly as a map. In that case, the removed keys are simply not part of
+ * the created map.
+ *
+ * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+ *
+ */
+public class ComplexMapDeltaDeserializer extends StdDeserializer<MapDelta<Object, Object>> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The deserializer that is used to parse the map elements.
+     */
+    private AbstractComplexMapDeserializer<?> mapDeserializer;
+
+    /**
+     * Constructor.
+     */
+    public ComplexMapDeltaDeserializer() {
+        this(new ComplexHashMapDeserializer());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param mapDeserializer the deserializer that is used to parse the map
+     *                        elements
+     */
+    public ComplexMapDeltaDeserializer(AbstractComplexMapDeserializer<?> mapDeserializer) {
+        super(MapDelta.class);
+        this.mapDeserializer = mapDeserializer;
+    }
+
+    @Override
+    public MapDelta<Object, Object> deserialize(JsonParser parser, DeserializationContext ctxt)
+            throws IOException, JsonProcessingException {
+        MapDelta<Object, Object> delta = new MapDelta<>();
+        mapDeserializer.parseMap(parser, ctxt, delta.getPuts(), delta.getRemovals()::add);
+        return delta;
+    }
+
+}
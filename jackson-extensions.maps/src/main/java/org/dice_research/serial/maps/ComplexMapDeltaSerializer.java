@@ -0,0 +1,128 @@
+package org.dice_research.serial.maps;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * This class serializes {@link MapDelta} instances using the same element
+ * encoding as the {@link ComplexMapSerializer}. The puts of the delta are
+ * written as elements of the <code>"c"</code> array while the removed keys are
+ * written as elements of an additional <code>"d"</code> array. A serialized
+ * delta that puts <code>key1 -> value1</code> and removes <code>key2</code>
+ * may look like the following:
+ *
+ * <pre>
+ * { "a"="main key class",
+ *   "b"="main value class",
+ *   "c"=[{
+ *     "k"={ key1 object },
+ *     "v"={ value1 object }
+ *   }],
+ *   "d"=[{
+ *     "k"={ key2 object }
+ *   }]
+ * }
+ * </pre>
+ *
+ * The main key class is determined based on the keys of the puts and the
+ * removals while the main value class is determined based on the values of the
+ * puts. The <code>"b"</code> field and the two arrays are omitted if they
+ * would be empty.
+ *
+ * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+ *
+ */
+@SuppressWarnings({ "rawtypes", "unchecked", "serial" })
+public class ComplexMapDeltaSerializer extends StdSerializer<MapDelta> {
+
+    /**
+     * The serializer that is used to determine the main classes and to write the
+     * single elements.
+     */
+    private ComplexMapSerializer mapSerializer;
+
+    /**
+     * Constructor.
+     */
+    public ComplexMapDeltaSerializer() {
+        this(new ComplexMapSerializer());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param mapSerializer the serializer that is used to determine the main
+     *                      classes and to write the single elements
+     */
+    public ComplexMapDeltaSerializer(ComplexMapSerializer mapSerializer) {
+        super(MapDelta.class);
+        this.mapSerializer = mapSerializer;
+    }
+
+    @Override
+    public void serialize(MapDelta delta, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        if (delta.isEmpty()) {
+            // nothing to do...
+            gen.writeEndObject();
+            return;
+        }
+        Map puts = delta.getPuts();
+        Set removals = delta.getRemovals();
+        // Determine main types
+        Class<?> mainKeyClass = mapSerializer
+                .determineMainClass(Stream.concat(puts.keySet().stream(), removals.stream()));
+        Class<?> mainValueClass = puts.isEmpty() ? null : mapSerializer.determineValueClass(puts);
+        // Write the main classes into the header of our object
+        mapSerializer.writeType(mainKeyClass, true, gen);
+        if (mainValueClass != null) {
+            mapSerializer.writeType(mainValueClass, false, gen);
+        }
+        // Write the puts
+        if (!puts.isEmpty()) {
+            gen.writeFieldName(ComplexMapSerializer.ARRAY_FIELD);
+            gen.writeStartArray();
+            for (Entry entry : (Set<Entry>) puts.entrySet()) {
+                mapSerializer.writeElement(entry.getKey(), mainKeyClass, entry.getValue(), mainValueClass, gen);
+            }
+            gen.writeEndArray();
+        }
+        // Write the removals
+        if (!removals.isEmpty()) {
+            gen.writeFieldName(ComplexMapSerializer.REMOVED_ARRAY_FIELD);
+            gen.writeStartArray();
+            for (Object key : removals) {
+                writeRemovedKey(key, mainKeyClass, gen);
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+    }
+
+    /**
+     * This method writes a single removed key as element that has no value.
+     *
+     * @param key          the key that should be serialized
+     * @param mainKeyClass the main class of keys in the delta
+     * @param gen          the JSON generator instance which is used to create the
+     *                     JSON
+     * @throws IOException if the generator throws an exception
+     */
+    protected void writeRemovedKey(Object key, Class mainKeyClass, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        // Write key class if it is not the same as the main class
+        if ((key != null) && (!mainKeyClass.equals(key.getClass()))) {
+            mapSerializer.writeType(key.getClass(), true, gen);
+        }
+        gen.writeObjectField(ComplexMapSerializer.KEY_FIELD, key);
+        gen.writeEndObject();
+    }
+
+}
@@ -0,0 +1,31 @@
+package org.dice_research.serial.maps;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Generic implementation of the {@link AbstractComplexMapDeserializer} which
+ * creates {@link Map} instances using the given factory. It is used by the
+ * {@link ComplexMapsModule} for all map types that do not have a more specific
+ * deserializer.
+ * 
+ * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+ *
+ * @param <T> the type of the created maps
+ */
+public class ComplexMapDeserializer<T extends Map<Object, Object>> extends AbstractComplexMapDeserializer<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor.
+     * 
+     * @param mapFactory the factory that is used to generate {@link Map} instances
+     *                   when needed
+     * @param t          Type of values this deserializer handles
+     */
+    public ComplexMapDeserializer(Supplier<T> mapFactory, Class<?> t) {
+        super(mapFactory, t);
+    }
+
+}
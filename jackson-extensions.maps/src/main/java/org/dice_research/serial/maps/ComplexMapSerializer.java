@@ -41,6 +41,28 @@ import com.fasterxml.jackson.databind.ser.std.StdSerializer;
  * }
  * </pre>
  * 
+ * Determining the main classes needs an additional pass over the map. This pass
+ * can be avoided by enabling the type trailer (see
+ * {@link #setTypeTrailer(boolean)}). In this mode, the elements are written in
+ * a single pass. The first key and value classes that are seen are used as main
+ * classes. They are written explicitly within the first element that has them,
+ * and the main classes are written after the array of elements:
+ * 
+ * <pre>
+ * { "c"=[{
+ *     "a"="main key class",
+ *     "b"="main value class",
+ *     "k"={ key1 object },
+ *     "v"={ value1 object }
+ *   },{
+ *     "k"={ key2 object },
+ *     "v"={ value2 object }
+ *   }],
+ *   "a"="main key class",
+ *   "b"="main value class"
+ * }
+ * </pre>
+ * 
  * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
  *
  */
@@ -52,6 +74,16 @@ public class ComplexMapSerializer extends StdSerializer<Map> {
     public static final String KEY_TYPE_FIELD = "a";
     public static final String VALUE_TYPE_FIELD = "b";
     public static final String ARRAY_FIELD = "c";
+    public static final String REMOVED_ARRAY_FIELD = "d";
+    public static final String ELEMENT_TYPE_FIELD = "e";
+    public static final String SIZE_FIELD = "n";
+    public static final String ITEM_TYPES_FIELD = "t";
+
+    /**
+     * Flag indicating whether the main classes are written after the array of
+     * elements instead of being determined in a first pass over the map.
+     */
+    private boolean typeTrailer = false;
 
     /**
      * Constructor.
@@ -79,6 +111,10 @@ public class ComplexMapSerializer extends StdSerializer<Map> {
             gen.writeEndObject();
             return;
         }
+        if (typeTrailer) {
+            serializeWithTypeTrailer(map, gen);
+            return;
+        }
         // Determine main types
         Class<?> mainKeyClass = determineKeyClass(map);
         Class<?> mainValueClass = determineValueClass(map);
@@ -95,6 +131,43 @@ public class ComplexMapSerializer extends StdSerializer<Map> {
         gen.writeEndObject();
     }
 
+    /**
+     * Writes the elements of the given, non-empty map in a single pass and adds
+     * the main classes after the array of elements. The first classes that are
+     * seen are used as main classes.
+     * 
+     * @param map the map that should be serialized
+     * @param gen the JSON generator instance which is used to create the JSON
+     * @throws IOException if the generator throws an exception
+     */
+    protected void serializeWithTypeTrailer(Map map, JsonGenerator gen) throws IOException {
+        Class<?> mainKeyClass = null;
+        Class<?> mainValueClass = null;
+        gen.writeFieldName(ARRAY_FIELD);
+        gen.writeStartArray();
+        for (Object e : map.entrySet()) {
+            Entry entry = (Entry) e;
+            // If no main class is known, the element's class is written and becomes
+            // the main class
+            writeElement(entry.getKey(), mainKeyClass, entry.getValue(), mainValueClass, gen);
+            if ((mainKeyClass == null) && (entry.getKey() != null)) {
+                mainKeyClass = entry.getKey().getClass();
+            }
+            if ((mainValueClass == null) && (entry.getValue() != null)) {
+                mainValueClass = entry.getValue().getClass();
+            }
+        }
+        gen.writeEndArray();
+        // Write the main classes as trailer of our object
+        if (mainKeyClass != null) {
+            writeType(mainKeyClass, true, gen);
+        }
+        if (mainValueClass != null) {
+            writeType(mainValueClass, false, gen);
+        }
+        gen.writeEndObject();
+    }
+
     /**
      * Method that determines the main key class.
      * 
@@ -158,9 +231,11 @@ public class ComplexMapSerializer extends StdSerializer<Map> {
      * This method writes a single element from the map (i.e., a key value pair).
      * 
      * @param key            the key that should be serialized
-     * @param mainKeyClass   the main class of keys in the map
+     * @param mainKeyClass   the main class of keys in the map or
+     *                       <code>null</code> if it is not known, yet
      * @param value          the value that should be serialized
-     * @param mainValueClass the main class of the values in the map
+     * @param mainValueClass the main class of the values in the map or
+     *                       <code>null</code> if it is not known, yet
      * @param gen            the JSON generator instance which is used to create the
      *                       JSON
      * @throws IOException if the generator throws an exception
@@ -169,11 +244,11 @@ public class ComplexMapSerializer extends StdSerializer<Map> {
             throws IOException {
         gen.writeStartObject();
         // Write key class if it is not the same as the main class
-        if ((key != null) && (!mainKeyClass.equals(key.getClass()))) {
+        if ((key != null) && ((mainKeyClass == null) || !mainKeyClass.equals(key.getClass()))) {
             writeType(key.getClass(), true, gen);
         }
         // Write value class if it is not the same as the main class
-        if ((value != null) && (!mainValueClass.equals(value.getClass()))) {
+        if ((value != null) && ((mainValueClass == null) || !mainValueClass.equals(value.getClass()))) {
             writeType(value.getClass(), false, gen);
         }
         // Write key object
@@ -183,4 +258,28 @@ public class ComplexMapSerializer extends StdSerializer<Map> {
         gen.writeEndObject();
     }
 
+    /**
+     * @return <code>true</code> if the main classes are written after the array
+     *         of elements
+     */
+    public boolean isTypeTrailer() {
+        return typeTrailer;
+    }
+
+    /**
+     * Sets whether the main classes should be written after the array of
+     * elements. This avoids the additional pass over the map that is needed to
+     * determine the main classes. Instead, the first classes that are seen are
+     * used as main classes. No class counts are tracked, i.e., the output grows
+     * if the first element does not have the most common key or value class,
+     * since all elements of the most common classes are written with explicit
+     * class names in that case.
+     * 
+     * @param typeTrailer <code>true</code> if the main classes should be written
+     *                    after the array of elements
+     */
+    public void setTypeTrailer(boolean typeTrailer) {
+        this.typeTrailer = typeTrailer;
+    }
+
 }
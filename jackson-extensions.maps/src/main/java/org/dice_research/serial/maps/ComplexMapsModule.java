@@ -0,0 +1,380 @@
+package org.dice_research.serial.maps;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.KeyDeserializer;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.deser.Deserializers;
+import com.fasterxml.jackson.databind.jsontype.TypeDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.Serializers;
+import com.fasterxml.jackson.databind.type.MapType;
+
+/**
+ * A Jackson {@link Module} that registers the (de)serializers of this package
+ * for all {@link Map} types and for {@link MapDelta}. In contrast to
+ * registering the (de)serializers for single classes, the module handles every
+ * implementation of the {@link Map} interface:
+ * <ul>
+ * <li>All maps are serialized with the {@link ComplexMapSerializer}.</li>
+ * <li>Maps are deserialized with a deserializer that creates instances of the
+ * requested type. Interfaces and abstract classes are mapped to a default
+ * implementation (e.g., {@link java.util.SortedMap} to {@link TreeMap} or
+ * {@link java.util.concurrent.ConcurrentMap} to {@link ConcurrentHashMap}).
+ * Other classes are created using their public default constructor. Factories
+ * for single map types can be added with
+ * {@link #addMapFactory(Class, Supplier)}, e.g., to create {@link TreeMap}
+ * instances with a certain comparator. Such a factory is also used for
+ * interfaces and abstract classes that it can serve (e.g., a factory for
+ * {@link TreeMap} is used for {@link java.util.SortedMap} and
+ * {@link java.util.NavigableMap}).</li>
+ * <li>{@link CompactImmutableMap} instances are created with the
+ * {@link ComplexCompactMapDeserializer}.</li>
+ * <li>{@link EnumMap} instances are created with the
+ * {@link ComplexEnumMapDeserializer} based on the key type of the requested
+ * map.</li>
+ * </ul>
+ * Other map classes that neither have a public default constructor nor an added
+ * factory (e.g., the unmodifiable maps of {@link java.util.Collections}) are
+ * written like all other maps but can only be read as one of their interfaces
+ * (e.g., {@link Map}).
+ * The deserializer of a map type is determined only once and cached. Note that
+ * the elements of a single map are read sequentially from the parser. For
+ * concurrent maps (e.g., {@link ConcurrentHashMap}), they are stored with the
+ * thread-safe <code>put</code> and <code>putIfAbsent</code> methods of the map,
+ * i.e., other threads can read a map that is updated (see
+ * {@link MergeMode}) while it is deserialized. A
+ * {@link TypeRegistry} can be set to restrict the key and value classes that
+ * the deserializers accept. Since the deserializers are shared, a subset of the
+ * elements is read by defining the
+ * {@link AbstractComplexMapDeserializer#KEY_FILTER} and
+ * {@link AbstractComplexMapDeserializer#MAX_ELEMENTS} attributes for a single
+ * call, e.g.,
+ * <code>mapper.readerFor(Map.class).withAttribute(KEY_FILTER, filter)</code>.
+ *
+ * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+ *
+ */
+public class ComplexMapsModule extends Module {
+
+    /**
+     * The default implementations. The order is important since the first
+     * implementation that can be assigned to a requested interface or abstract
+     * class is used.
+     */
+    private static final Map<Class<?>, Supplier<? extends Map<?, ?>>> DEFAULT_FACTORIES = new LinkedHashMap<>();
+
+    static {
+        DEFAULT_FACTORIES.put(HashMap.class, HashMap::new);
+        DEFAULT_FACTORIES.put(LinkedHashMap.class, LinkedHashMap::new);
+        DEFAULT_FACTORIES.put(TreeMap.class, TreeMap::new);
+        DEFAULT_FACTORIES.put(ConcurrentHashMap.class, ConcurrentHashMap::new);
+        DEFAULT_FACTORIES.put(ConcurrentSkipListMap.class, ConcurrentSkipListMap::new);
+    }
+
+    /**
+     * The factories that have been added for single map types.
+     */
+    private Map<Class<?>, Supplier<? extends Map<?, ?>>> mapFactories = new LinkedHashMap<>();
+    /**
+     * The serializer that is used for all maps.
+     */
+    private ComplexMapSerializer serializer = new ComplexMapSerializer();
+    /**
+     * The merge mode of the created deserializers.
+     */
+    private MergeMode mergeMode = MergeMode.PUT_ALL;
+    /**
+     * The registry of the classes that are allowed to be read or
+     * <code>null</code> if all classes are loaded.
+     */
+    private TypeRegistry typeRegistry = null;
+
+    @Override
+    public String getModuleName() {
+        return getClass().getSimpleName();
+    }
+
+    @Override
+    public Version version() {
+        return Version.unknownVersion();
+    }
+
+    @Override
+    public void setupModule(SetupContext context) {
+        context.addSerializers(new ComplexMapSerializers(serializer));
+        context.addDeserializers(new ComplexMapDeserializers(new LinkedHashMap<>(mapFactories), mergeMode, typeRegistry));
+    }
+
+    /**
+     * Adds a factory for the given map type. The factory is used for exactly this
+     * type and for interfaces and abstract classes that the type implements.
+     * Requests for an interface or abstract class use the factory of its default
+     * implementation (e.g., {@link TreeMap} for {@link java.util.SortedMap}) or
+     * of a subclass of it (see {@link ComplexMapDeserializers#findFactory(Class)}).
+     * The factory is not used for subclasses of the type.
+     *
+     * @param mapClass the type of map for which the factory should be used
+     * @param factory  the factory that creates the map instances
+     * @return this module
+     */
+    public <M extends Map<?, ?>> ComplexMapsModule addMapFactory(Class<M> mapClass, Supplier<? extends M> factory) {
+        mapFactories.put(mapClass, factory);
+        return this;
+    }
+
+    /**
+     * @param serializer the serializer that is used for all maps
+     * @return this module
+     */
+    public ComplexMapsModule setSerializer(ComplexMapSerializer serializer) {
+        this.serializer = serializer;
+        return this;
+    }
+
+    /**
+     * @param mergeMode the merge mode of the created deserializers
+     * @return this module
+     */
+    public ComplexMapsModule setMergeMode(MergeMode mergeMode) {
+        this.mergeMode = mergeMode;
+        return this;
+    }
+
+    /**
+     * @param typeRegistry the registry of the classes that the created
+     *                     deserializers accept or <code>null</code> if all
+     *                     classes should be loaded
+     * @return this module
+     */
+    public ComplexMapsModule setTypeRegistry(TypeRegistry typeRegistry) {
+        this.typeRegistry = typeRegistry;
+        return this;
+    }
+
+    /**
+     * {@link Serializers} implementation that returns the
+     * {@link ComplexMapSerializer} for all map types and the
+     * {@link ComplexMapDeltaSerializer} for {@link MapDelta}.
+     *
+     * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+     *
+     */
+    protected static class ComplexMapSerializers extends Serializers.Base {
+
+        private ComplexMapSerializer mapSerializer;
+        private ComplexMapDeltaSerializer deltaSerializer;
+
+        public ComplexMapSerializers(ComplexMapSerializer mapSerializer) {
+            this.mapSerializer = mapSerializer;
+            this.deltaSerializer = new ComplexMapDeltaSerializer(mapSerializer);
+        }
+
+        @Override
+        public JsonSerializer<?> findSerializer(SerializationConfig config, JavaType type, BeanDescription beanDesc) {
+            if (MapDelta.class.isAssignableFrom(type.getRawClass())) {
+                return deltaSerializer;
+            }
+            return null;
+        }
+
+        @Override
+        public JsonSerializer<?> findMapSerializer(SerializationConfig config, MapType type, BeanDescription beanDesc,
+                JsonSerializer<Object> keySerializer, TypeSerializer elementTypeSerializer,
+                JsonSerializer<Object> elementValueSerializer) {
+            return mapSerializer;
+        }
+    }
+
+    /**
+     * {@link Deserializers} implementation that determines the deserializer for
+     * a map type once and caches it.
+     *
+     * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+     *
+     */
+    protected static class ComplexMapDeserializers extends Deserializers.Base {
+
+        private Map<Class<?>, Supplier<? extends Map<?, ?>>> mapFactories;
+        private MergeMode mergeMode;
+        private TypeRegistry typeRegistry;
+        private Map<Class<?>, AbstractComplexMapDeserializer<?>> cache = new ConcurrentHashMap<>();
+        /**
+         * The deserializers of {@link EnumMap} types mapped by their key classes.
+         */
+        private Map<Class<?>, AbstractComplexMapDeserializer<?>> enumMapCache = new ConcurrentHashMap<>();
+        private ComplexMapDeltaDeserializer deltaDeserializer;
+
+        public ComplexMapDeserializers(Map<Class<?>, Supplier<? extends Map<?, ?>>> mapFactories,
+                MergeMode mergeMode, TypeRegistry typeRegistry) {
+            this.mapFactories = mapFactories;
+            this.mergeMode = mergeMode;
+            this.typeRegistry = typeRegistry;
+            ComplexHashMapDeserializer deltaMapDeserializer = new ComplexHashMapDeserializer();
+            deltaMapDeserializer.setTypeRegistry(typeRegistry);
+            this.deltaDeserializer = new ComplexMapDeltaDeserializer(deltaMapDeserializer);
+        }
+
+        @Override
+        public JsonDeserializer<?> findBeanDeserializer(JavaType type, DeserializationConfig config,
+                BeanDescription beanDesc) {
+            if (type.hasRawClass(MapDelta.class)) {
+                return deltaDeserializer;
+            }
+            return null;
+        }
+
+        @Override
+        public JsonDeserializer<?> findMapDeserializer(MapType type, DeserializationConfig config,
+                BeanDescription beanDesc, KeyDeserializer keyDeserializer, TypeDeserializer elementTypeDeserializer,
+                JsonDeserializer<?> elementDeserializer) {
+            if (type.hasRawClass(EnumMap.class) && !mapFactories.containsKey(EnumMap.class)) {
+                // The created maps depend on the key type
+                Class<?> keyClass = type.getKeyType().getRawClass();
+                AbstractComplexMapDeserializer<?> deserializer = enumMapCache.get(keyClass);
+                if (deserializer == null) {
+                    deserializer = configure(new ComplexEnumMapDeserializer(keyClass));
+                    enumMapCache.put(keyClass, deserializer);
+                }
+                return deserializer;
+            }
+            AbstractComplexMapDeserializer<?> deserializer = cache.get(type.getRawClass());
+            if (deserializer == null) {
+                deserializer = createDeserializer(type.getRawClass());
+                if (deserializer != null) {
+                    cache.put(type.getRawClass(), configure(deserializer));
+                }
+            }
+            return deserializer;
+        }
+
+        /**
+         * Sets the merge mode and the type registry of the module at the given
+         * deserializer.
+         *
+         * @param deserializer the deserializer that should be configured
+         * @return the given deserializer
+         */
+        protected AbstractComplexMapDeserializer<?> configure(AbstractComplexMapDeserializer<?> deserializer) {
+            deserializer.setMergeMode(mergeMode);
+            deserializer.setTypeRegistry(typeRegistry);
+            return deserializer;
+        }
+
+        /**
+         * Creates a deserializer for the given map type.
+         *
+         * @param mapClass the requested map type
+         * @return the deserializer or <code>null</code> if the module cannot create
+         *         instances of the given map type
+         */
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        protected AbstractComplexMapDeserializer<?> createDeserializer(Class<?> mapClass) {
+            if (CompactImmutableMap.class.equals(mapClass)) {
+                return new ComplexCompactMapDeserializer(mapClass);
+            }
+            Supplier factory = mapFactories.get(mapClass);
+            if (factory == null) {
+                factory = DEFAULT_FACTORIES.get(mapClass);
+            }
+            if (factory == null) {
+                if (mapClass.isInterface() || Modifier.isAbstract(mapClass.getModifiers())) {
+                    factory = findFactory(mapClass);
+                } else {
+                    factory = createReflectiveFactory(mapClass);
+                }
+            }
+            return (factory == null) ? null : new ComplexMapDeserializer(factory, mapClass);
+        }
+
+        /**
+         * Searches for a factory of the given interface or abstract class. The
+         * factories are searched in the following order:
+         * <ol>
+         * <li>the added factory of the default implementation of the type (e.g.,
+         * {@link TreeMap} for {@link java.util.SortedMap}),</li>
+         * <li>the first added factory with a type that is a subclass of the default
+         * implementation or, if the type has no default implementation, that can
+         * be assigned to the requested type,</li>
+         * <li>the default implementation of the type.</li>
+         * </ol>
+         * Restricting the added factories to subclasses of the default
+         * implementation ensures that, e.g., a factory for {@link TreeMap} is not
+         * used if a {@link Map} is requested.
+         *
+         * @param mapClass the requested map type
+         * @return the factory or <code>null</code> if none could be found
+         */
+        protected Supplier<? extends Map<?, ?>> findFactory(Class<?> mapClass) {
+            Class<?> defaultClass = findAssignableClass(mapClass, DEFAULT_FACTORIES);
+            if ((defaultClass != null) && mapFactories.containsKey(defaultClass)) {
+                return mapFactories.get(defaultClass);
+            }
+            Class<?> factoryClass = findAssignableClass((defaultClass != null) ? defaultClass : mapClass,
+                    mapFactories);
+            if (factoryClass != null) {
+                return mapFactories.get(factoryClass);
+            }
+            return (defaultClass != null) ? DEFAULT_FACTORIES.get(defaultClass) : null;
+        }
+
+        /**
+         * Searches for the first class within the given factories that can be
+         * assigned to the given map type.
+         *
+         * @param mapClass  the requested map type
+         * @param factories the factories that should be searched
+         * @return the first assignable class or <code>null</code> if none could be
+         *         found
+         */
+        protected Class<?> findAssignableClass(Class<?> mapClass,
+                Map<Class<?>, Supplier<? extends Map<?, ?>>> factories) {
+            for (Class<?> factoryClass : factories.keySet()) {
+                if (mapClass.isAssignableFrom(factoryClass)) {
+                    return factoryClass;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Creates a factory that uses the public default constructor of the given
+         * class.
+         *
+         * @param mapClass the requested map type
+         * @return the factory or <code>null</code> if the class does not have a
+         *         public default constructor
+         */
+        protected Supplier<? extends Map<?, ?>> createReflectiveFactory(Class<?> mapClass) {
+            Constructor<?> constructor;
+            try {
+                constructor = mapClass.getConstructor();
+            } catch (NoSuchMethodException | SecurityException e) {
+                return null;
+            }
+            return () -> {
+                try {
+                    return (Map<?, ?>) constructor.newInstance();
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("Couldn't create an instance of " + mapClass.getName(), e);
+                }
+            };
+        }
+    }
+}
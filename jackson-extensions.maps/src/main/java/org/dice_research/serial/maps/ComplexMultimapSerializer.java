@@ -0,0 +1,274 @@
+package org.dice_research.serial.maps;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+/**
+ * An extension of the {@link ComplexMapSerializer} for maps with
+ * {@link Collection} values (e.g., <code>Map&lt;K, List&lt;V&gt;&gt;</code>).
+ * Instead of serializing a collection value as a single object, the items of
+ * all collections share a main element class that is written only once in the
+ * header of the map object. Each key is written once together with the size of
+ * its collection and a plain array of items. A serialized map object with
+ * <code>[key1 -&gt; [item1, item2], key2 -&gt; [item3]]</code> may look like
+ * the following:
+ *
+ * <pre>
+ * { "a"="main key class",
+ *   "b"="main collection class",
+ *   "e"="main element class",
+ *   "c"=[{
+ *     "k"={ key1 object },
+ *     "n"=2,
+ *     "v"=[{ item1 object }, { item2 object }]
+ *   },{
+ *     "k"={ key2 object },
+ *     "n"=1,
+ *     "v"=[{ item3 object }]
+ *   }]
+ * }
+ * </pre>
+ *
+ * If some items of a collection have a class that differs from the main
+ * element class, the element gets an additional array with the class names of
+ * all its items, which is written before the array of items. An empty string
+ * marks an item that has the main element class:
+ *
+ * <pre>
+ * {
+ *   "k"={ key1 object },
+ *   "n"=2,
+ *   "t"=["", "class of item2"],
+ *   "v"=[{ item1 object }, { item2 object }]
+ * }
+ * </pre>
+ *
+ * Values that are not collections are written like it is done by the
+ * {@link ComplexMapSerializer}. The {@link AbstractComplexMapDeserializer}
+ * implementations read the grouped format and create the collections with the
+ * needed capacity. If the type trailer is enabled (see
+ * {@link #setTypeTrailer(boolean)}), the main element class is written within
+ * the first element that has a non-null item and after the array of elements.
+ *
+ * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+ *
+ */
+@SuppressWarnings({ "rawtypes", "serial" })
+public class ComplexMultimapSerializer extends ComplexMapSerializer {
+
+    /**
+     * Constructor.
+     */
+    public ComplexMultimapSerializer() {
+        super();
+    }
+
+    /**
+     * Constructor taking additional type that this serializer can process.
+     *
+     * @param t Nominal type supported, usually declared type of property for which
+     *          serializer is used.
+     *
+     */
+    public ComplexMultimapSerializer(Class<Map> t) {
+        super(t);
+    }
+
+    @Override
+    public void serialize(Map map, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        if (map.isEmpty()) {
+            // nothing to do...
+            gen.writeEndObject();
+            return;
+        }
+        if (isTypeTrailer()) {
+            serializeWithTypeTrailer(map, gen);
+            return;
+        }
+        // Determine main types
+        Class<?> mainKeyClass = determineKeyClass(map);
+        Class<?> mainValueClass = determineValueClass(map);
+        Class<?> mainElementClass = determineElementClass(map);
+        // Write the main classes into the header of our object
+        writeType(mainKeyClass, true, gen);
+        writeType(mainValueClass, false, gen);
+        if (mainElementClass != null) {
+            writeElementType(mainElementClass, gen);
+        }
+        // Write the single elements
+        gen.writeFieldName(ARRAY_FIELD);
+        gen.writeStartArray();
+        for (Object e : map.entrySet()) {
+            Entry entry = (Entry) e;
+            writeElement(entry.getKey(), mainKeyClass, entry.getValue(), mainValueClass, mainElementClass, gen);
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    @Override
+    protected void serializeWithTypeTrailer(Map map, JsonGenerator gen) throws IOException {
+        Class<?> mainKeyClass = null;
+        Class<?> mainValueClass = null;
+        Class<?> mainElementClass = null;
+        gen.writeFieldName(ARRAY_FIELD);
+        gen.writeStartArray();
+        for (Object e : map.entrySet()) {
+            Entry entry = (Entry) e;
+            // If no main class is known, the element's class is written and becomes
+            // the main class
+            writeElement(entry.getKey(), mainKeyClass, entry.getValue(), mainValueClass, mainElementClass, gen);
+            if ((mainKeyClass == null) && (entry.getKey() != null)) {
+                mainKeyClass = entry.getKey().getClass();
+            }
+            if ((mainValueClass == null) && (entry.getValue() != null)) {
+                mainValueClass = entry.getValue().getClass();
+            }
+            if ((mainElementClass == null) && (entry.getValue() instanceof Collection)) {
+                mainElementClass = determineFirstItemClass((Collection<?>) entry.getValue());
+            }
+        }
+        gen.writeEndArray();
+        // Write the main classes as trailer of our object
+        if (mainKeyClass != null) {
+            writeType(mainKeyClass, true, gen);
+        }
+        if (mainValueClass != null) {
+            writeType(mainValueClass, false, gen);
+        }
+        if (mainElementClass != null) {
+            writeElementType(mainElementClass, gen);
+        }
+        gen.writeEndObject();
+    }
+
+    /**
+     * Method that determines the main class of the items of all collection
+     * values.
+     *
+     * @param map the map that should be serialized
+     * @return the {@link Class} instance that represents the highest number of
+     *         items or <code>null</code> if the map does not contain any
+     *         collection with a non-null item
+     */
+    protected Class<?> determineElementClass(Map map) {
+        return determineMainClass(((Collection<?>) map.values()).stream().filter(v -> v instanceof Collection)
+                .flatMap(v -> ((Collection<?>) v).stream()).filter(Objects::nonNull));
+    }
+
+    /**
+     * Determines the class of the first non-null item of the given collection.
+     *
+     * @param collection the collection
+     * @return the class of the first non-null item or <code>null</code> if the
+     *         collection does not contain such an item
+     */
+    protected Class<?> determineFirstItemClass(Collection<?> collection) {
+        for (Object item : collection) {
+            if (item != null) {
+                return item.getClass();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A simple method that writes the given main element class to the JSON
+     * generator.
+     *
+     * @param clazz the class that should be written
+     * @param gen   the JSON generator instance which is used to create the JSON
+     * @throws IOException if the generator throws an exception
+     */
+    protected void writeElementType(Class<?> clazz, JsonGenerator gen) throws IOException {
+        gen.writeFieldName(ELEMENT_TYPE_FIELD);
+        gen.writeString(clazz.getName());
+    }
+
+    /**
+     * Writes a single element without knowing the main element class (e.g., if
+     * it is used by the {@link ComplexMapDeltaSerializer}). Collection values are
+     * grouped nevertheless and define their element class explicitly.
+     */
+    @Override
+    protected void writeElement(Object key, Class mainKeyClass, Object value, Class mainValueClass, JsonGenerator gen)
+            throws IOException {
+        writeElement(key, mainKeyClass, value, mainValueClass, null, gen);
+    }
+
+    /**
+     * This method writes a single element from the map (i.e., a key value pair).
+     * If the value is a collection, its items are written as grouped array.
+     * Otherwise, the element is written as it is done by the
+     * {@link ComplexMapSerializer}.
+     *
+     * @param key              the key that should be serialized
+     * @param mainKeyClass     the main class of keys in the map or
+     *                         <code>null</code> if it is not known, yet
+     * @param value            the value that should be serialized
+     * @param mainValueClass   the main class of the values in the map or
+     *                         <code>null</code> if it is not known, yet
+     * @param mainElementClass the main class of the items of collection values or
+     *                         <code>null</code> if it is not known, yet
+     * @param gen              the JSON generator instance which is used to create
+     *                         the JSON
+     * @throws IOException if the generator throws an exception
+     */
+    protected void writeElement(Object key, Class mainKeyClass, Object value, Class mainValueClass,
+            Class mainElementClass, JsonGenerator gen) throws IOException {
+        if (!(value instanceof Collection)) {
+            super.writeElement(key, mainKeyClass, value, mainValueClass, gen);
+            return;
+        }
+        Collection<?> collection = (Collection<?>) value;
+        gen.writeStartObject();
+        // Write key class if it is not the same as the main class
+        if ((key != null) && ((mainKeyClass == null) || !mainKeyClass.equals(key.getClass()))) {
+            writeType(key.getClass(), true, gen);
+        }
+        // Write collection class if it is not the same as the main class
+        if ((mainValueClass == null) || !mainValueClass.equals(value.getClass())) {
+            writeType(value.getClass(), false, gen);
+        }
+        // Write element class if it is not known, yet
+        if (mainElementClass == null) {
+            mainElementClass = determineFirstItemClass(collection);
+            if (mainElementClass != null) {
+                writeElementType(mainElementClass, gen);
+            }
+        }
+        // Write key object
+        gen.writeObjectField(KEY_FIELD, key);
+        gen.writeNumberField(SIZE_FIELD, collection.size());
+        // Write the classes of the items if at least one of them differs
+        boolean differingItemClass = false;
+        for (Object item : collection) {
+            if ((item != null) && !item.getClass().equals(mainElementClass)) {
+                differingItemClass = true;
+                break;
+            }
+        }
+        if (differingItemClass) {
+            gen.writeArrayFieldStart(ITEM_TYPES_FIELD);
+            for (Object item : collection) {
+                gen.writeString(((item == null) || item.getClass().equals(mainElementClass)) ? ""
+                        : item.getClass().getName());
+            }
+            gen.writeEndArray();
+        }
+        // Write the items
+        gen.writeArrayFieldStart(VALUE_FIELD);
+        for (Object item : collection) {
+            gen.writeObject(item);
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,154 @@
+package org.dice_research.serial.maps;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A set of changes that transform one state of a {@link Map} into another
+ * state. A delta comprises the entries that have been added or whose value has
+ * changed (puts) and the keys that have been removed (removals). It can be
+ * serialized with the {@link ComplexMapDeltaSerializer} and deserialized with
+ * the {@link ComplexMapDeltaDeserializer}, which makes it possible to write
+ * only the changes of a large map instead of the complete map.
+ *
+ * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+ *
+ * @param <K> the type of the keys of the map
+ * @param <V> the type of the values of the map
+ */
+public class MapDelta<K, V> {
+
+    /**
+     * The entries that have to be put into the map.
+     */
+    private Map<K, V> puts;
+    /**
+     * The keys that have to be removed from the map.
+     */
+    private Set<K> removals;
+
+    /**
+     * Constructor for an empty delta.
+     */
+    public MapDelta() {
+        this(new HashMap<>(), new HashSet<>());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param puts     the entries that have to be put into the map
+     * @param removals the keys that have to be removed from the map
+     */
+    public MapDelta(Map<K, V> puts, Set<K> removals) {
+        this.puts = puts;
+        this.removals = removals;
+    }
+
+    /**
+     * Determines the delta between the two given states of a map, i.e., the
+     * returned delta transforms the previous state into the current state when it
+     * is applied to it.
+     *
+     * @param previous the previous state of the map (e.g., the last snapshot)
+     * @param current  the current state of the map
+     * @return the delta between the two given states
+     */
+    public static <K, V> MapDelta<K, V> diff(Map<K, V> previous, Map<K, V> current) {
+        MapDelta<K, V> delta = new MapDelta<>();
+        V oldValue;
+        for (Entry<K, V> entry : current.entrySet()) {
+            oldValue = previous.get(entry.getKey());
+            if ((oldValue == null) ? ((entry.getValue() != null) || !previous.containsKey(entry.getKey()))
+                    : !oldValue.equals(entry.getValue())) {
+                delta.puts.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (K key : previous.keySet()) {
+            if (!current.containsKey(key)) {
+                delta.removals.add(key);
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * Applies this delta to the given map. The removals are applied before the
+     * puts.
+     *
+     * @param map the map that should be updated
+     */
+    public void applyTo(Map<K, V> map) {
+        for (K key : removals) {
+            map.remove(key);
+        }
+        map.putAll(puts);
+    }
+
+    /**
+     * @return <code>true</code> if this delta does not contain any change
+     */
+    public boolean isEmpty() {
+        return puts.isEmpty() && removals.isEmpty();
+    }
+
+    /**
+     * @return the entries that have to be put into the map
+     */
+    public Map<K, V> getPuts() {
+        return puts;
+    }
+
+    /**
+     * @param puts the entries that have to be put into the map
+     */
+    public void setPuts(Map<K, V> puts) {
+        this.puts = puts;
+    }
+
+    /**
+     * @return the keys that have to be removed from the map
+     */
+    public Set<K> getRemovals() {
+        return removals;
+    }
+
+    /**
+     * @param removals the keys that have to be removed from the map
+     */
+    public void setRemovals(Set<K> removals) {
+        this.removals = removals;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(puts, removals);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        MapDelta<?, ?> other = (MapDelta<?, ?>) obj;
+        return Objects.equals(puts, other.puts) && Objects.equals(removals, other.removals);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("MapDelta [puts=");
+        builder.append(puts);
+        builder.append(", removals=");
+        builder.append(removals);
+        builder.append("]");
+        return builder.toString();
+    }
+}
@@ -0,0 +1,30 @@
+package org.dice_research.serial.maps;
+
+import java.util.Map;
+
+/**
+ * The different ways in which an {@link AbstractComplexMapDeserializer} can
+ * merge the read elements into an existing {@link Map} instance, e.g., when
+ * it is used with <code>ObjectMapper.readerForUpdating(existingMap)</code>.
+ *
+ * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+ *
+ */
+public enum MergeMode {
+    /**
+     * The existing map is cleared before the read elements are added. Note that
+     * other threads may see the map in an intermediate state if it is shared
+     * (e.g., a concurrent map).
+     */
+    REPLACE,
+    /**
+     * The read elements are put into the existing map, i.e., elements with the
+     * same key are overwritten while all other elements are kept.
+     */
+    PUT_ALL,
+    /**
+     * The read elements are only added to the existing map if it does not
+     * contain their key, yet.
+     */
+    PUT_IF_ABSENT;
+}
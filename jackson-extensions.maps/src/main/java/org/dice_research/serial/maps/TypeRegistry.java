@@ -0,0 +1,121 @@
+package org.dice_research.serial.maps;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * A registry of the key and value classes that are allowed to be read by an
+ * {@link AbstractComplexMapDeserializer}. If a deserializer has a registry (see
+ * {@link AbstractComplexMapDeserializer#setTypeRegistry(TypeRegistry)}), class
+ * names of the serialized data are only resolved using this registry, i.e.,
+ * the deserializer neither loads classes via reflection nor accepts classes
+ * that have not been registered up front. This has the following advantages:
+ * <ul>
+ * <li>Untrusted data cannot trigger the loading of arbitrary classes.</li>
+ * <li>Class names are resolved with a simple lookup instead of a class loader
+ * call.</li>
+ * <li>The deserializers of the registered classes can be created at startup
+ * with {@link #prebuildDeserializers(ObjectMapper)} instead of while the first
+ * map is read.</li>
+ * <li>The registry can write the reflection metadata that the GraalVM
+ * native-image tool needs for the registered classes (see
+ * {@link #writeReflectionConfig(Writer)}).</li>
+ * </ul>
+ *
+ * Primitive types and arrays have to be registered with their wrapper or array
+ * classes, e.g., <code>Integer.class</code> or <code>byte[].class</code>.
+ *
+ * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+ *
+ */
+public class TypeRegistry {
+
+    /**
+     * The registered classes mapped by their names.
+     */
+    private Map<String, Class<?>> classes = new ConcurrentHashMap<>();
+
+    /**
+     * Registers the given classes.
+     *
+     * @param classes the classes that are allowed to be read
+     * @return this registry
+     */
+    public TypeRegistry register(Class<?>... classes) {
+        for (Class<?> clazz : classes) {
+            this.classes.put(clazz.getName(), clazz);
+        }
+        return this;
+    }
+
+    /**
+     * Returns the registered class with the given name.
+     *
+     * @param className the name of the class (as returned by
+     *                  {@link Class#getName()})
+     * @return the class or <code>null</code> if no class with this name has been
+     *         registered
+     */
+    public Class<?> getRegisteredClass(String className) {
+        return classes.get(className);
+    }
+
+    /**
+     * @return the registered classes
+     */
+    public Collection<Class<?>> getRegisteredClasses() {
+        return Collections.unmodifiableCollection(classes.values());
+    }
+
+    /**
+     * Creates the deserializers of all registered classes with the given mapper.
+     * Since the mapper caches the created deserializers, reading the first map
+     * does not have to create them anymore. This method should be called after
+     * all modules have been registered at the mapper.
+     *
+     * @param mapper the mapper that will be used to read the maps
+     * @return this registry
+     */
+    public TypeRegistry prebuildDeserializers(ObjectMapper mapper) {
+        for (Class<?> clazz : classes.values()) {
+            // The reader fetches the root deserializer of the class eagerly
+            mapper.readerFor(clazz);
+        }
+        return this;
+    }
+
+    /**
+     * Writes the reflection configuration of all registered classes in the
+     * format of the GraalVM native-image tool (i.e., the content of a
+     * <code>reflect-config.json</code> file). Jackson needs reflective access to
+     * the constructors, fields and methods of the classes to bind them.
+     *
+     * @param writer the writer to which the configuration is written
+     * @throws IOException in case the writer throws an exception
+     */
+    public void writeReflectionConfig(Writer writer) throws IOException {
+        try (JsonGenerator gen = new JsonFactory().createGenerator(writer)) {
+            gen.useDefaultPrettyPrinter();
+            gen.writeStartArray();
+            for (Class<?> clazz : classes.values()) {
+                gen.writeStartObject();
+                gen.writeStringField("name", clazz.getName());
+                gen.writeBooleanField("allDeclaredConstructors", true);
+                gen.writeBooleanField("allPublicConstructors", true);
+                gen.writeBooleanField("allDeclaredFields", true);
+                gen.writeBooleanField("allDeclaredMethods", true);
+                gen.writeBooleanField("allPublicMethods", true);
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.dice_research.serial.maps;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.dice_research.serial.maps.ComplexMapSerializationTest.ComplexObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class CompactImmutableMapTest {
+
+    @Test
+    public void testBuilder() {
+        Map<Integer, String> expectedMap = new HashMap<>();
+        CompactImmutableMap.Builder<Integer, String> builder = new CompactImmutableMap.Builder<>(2);
+        for (int i = 0; i < 1000; ++i) {
+            expectedMap.put(i * 31, Integer.toString(i));
+            builder.put(i * 31, Integer.toString(i));
+        }
+        // overwrite and remove some entries
+        for (int i = 0; i < 1000; i += 7) {
+            expectedMap.put(i * 31, "x");
+            builder.put(i * 31, "x");
+        }
+        for (int i = 0; i < 1000; i += 13) {
+            expectedMap.remove(i * 31);
+            builder.remove(i * 31);
+        }
+        expectedMap.put(null, "null");
+        builder.put(null, "null");
+
+        CompactImmutableMap<Integer, String> map = builder.build();
+        Assert.assertEquals(expectedMap, map);
+        Assert.assertEquals(map, expectedMap);
+        Assert.assertEquals(expectedMap.hashCode(), map.hashCode());
+        Assert.assertFalse(map.containsKey(1));
+        Assert.assertNull(map.get(1));
+    }
+
+    @Test
+    public void testRemovalsKeepOrder() {
+        Map<Integer, Integer> expectedMap = new LinkedHashMap<>();
+        CompactImmutableMap.Builder<Integer, Integer> builder = new CompactImmutableMap.Builder<>();
+        for (int i = 0; i < 10000; ++i) {
+            expectedMap.put(i, i);
+            builder.put(i, i);
+            if ((i % 3) == 0) {
+                expectedMap.remove(i / 2);
+                builder.remove(i / 2);
+            }
+        }
+        // removed keys can be added again
+        expectedMap.put(0, -1);
+        builder.put(0, -1);
+        Assert.assertEquals(expectedMap, builder);
+        Assert.assertEquals(new ArrayList<>(expectedMap.keySet()), new ArrayList<>(builder.keySet()));
+
+        CompactImmutableMap<Integer, Integer> map = builder.build();
+        Assert.assertEquals(expectedMap, map);
+        Assert.assertEquals(new ArrayList<>(expectedMap.keySet()), new ArrayList<>(map.keySet()));
+        // the builder is still usable after building the map
+        builder.put(-1, -1);
+        Assert.assertEquals(expectedMap.size() + 1, builder.size());
+        Assert.assertEquals(expectedMap.size(), map.size());
+    }
+
+    @Test
+    public void testBuilderIsNoImmutableMap() {
+        Object builder = new CompactImmutableMap.Builder<Integer, String>();
+        Assert.assertFalse(builder instanceof CompactImmutableMap);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutability() {
+        CompactImmutableMap.Builder<Integer, String> builder = new CompactImmutableMap.Builder<>();
+        builder.put(1, "1");
+        builder.build().put(2, "2");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testDeserialization() throws IOException {
+        ObjectMapper mapper = ComplexMapTestFixtures.createMapper(new ComplexCompactMapDeserializer());
+
+        Map<ComplexObject, ComplexObject> map = ComplexMapTestFixtures.createTestMap();
+
+        String json = mapper.writeValueAsString(map);
+        Map<ComplexObject, ComplexObject> readMap = mapper.readValue(json, Map.class);
+
+        Assert.assertTrue(readMap instanceof CompactImmutableMap);
+        Assert.assertEquals("Maps differ after serialization. JSON String: " + json, map, readMap);
+    }
+}
@@ -0,0 +1,69 @@
+package org.dice_research.serial.maps;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.dice_research.serial.maps.ComplexMapSerializationTest.ComplexObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ComplexEnumMapDeserializerTest {
+
+    private static final TypeReference<EnumMap<Color, ComplexObject>> ENUM_MAP_TYPE =
+            new TypeReference<EnumMap<Color, ComplexObject>>() {
+            };
+
+    private EnumMap<Color, ComplexObject> createMap() {
+        EnumMap<Color, ComplexObject> map = new EnumMap<>(Color.class);
+        for (Color color : Color.values()) {
+            map.put(color, new ComplexObject(color.name(), "value"));
+        }
+        return map;
+    }
+
+    @Test
+    public void testKnownKeyType() throws IOException {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new ComplexMapsModule());
+        EnumMap<Color, ComplexObject> map = createMap();
+
+        String json = mapper.writeValueAsString(map);
+        EnumMap<Color, ComplexObject> readMap = mapper.readValue(json, ENUM_MAP_TYPE);
+
+        Assert.assertEquals("Maps differ after serialization. JSON String: " + json, map, readMap);
+        Assert.assertEquals(EnumMap.class, readMap.getClass());
+    }
+
+    @Test
+    public void testUnknownKeyType() throws IOException {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new ComplexMapsModule());
+        EnumMap<Color, ComplexObject> map = createMap();
+
+        String json = mapper.writeValueAsString(map);
+        Map<?, ?> readMap = mapper.readValue(json, EnumMap.class);
+
+        Assert.assertEquals("Maps differ after serialization. JSON String: " + json, map, readMap);
+        Assert.assertEquals(EnumMap.class, readMap.getClass());
+    }
+
+    @Test
+    public void testEmptyMap() throws IOException {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new ComplexMapsModule());
+        EnumMap<Color, ComplexObject> map = new EnumMap<>(Color.class);
+
+        Assert.assertEquals(map, mapper.readValue(mapper.writeValueAsString(map), ENUM_MAP_TYPE));
+    }
+
+    @Test(expected = IOException.class)
+    public void testEmptyMapWithoutKeyType() throws IOException {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new ComplexMapsModule());
+        mapper.readValue(mapper.writeValueAsString(new EnumMap<>(Color.class)), EnumMap.class);
+    }
+
+    public static enum Color {
+        RED, GREEN, BLUE
+    }
+}
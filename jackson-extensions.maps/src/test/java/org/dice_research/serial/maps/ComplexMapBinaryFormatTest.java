@@ -0,0 +1,85 @@
+package org.dice_research.serial.maps;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.dice_research.serial.maps.ComplexMapSerializationTest.ComplexObject;
+import org.dice_research.serial.maps.ComplexMapSerializationTest.ExtendedObject;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+@RunWith(Parameterized.class)
+public class ComplexMapBinaryFormatTest {
+
+    private String formatName;
+    private JsonFactory factory;
+
+    public ComplexMapBinaryFormatTest(String formatName, JsonFactory factory) {
+        super();
+        this.formatName = formatName;
+        this.factory = factory;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void test() throws IOException {
+        SimpleModule module = new SimpleModule();
+        module.addSerializer(Map.class, new ComplexMapSerializer());
+        module.addDeserializer(Map.class, new ComplexHashMapDeserializer());
+        ObjectMapper mapper = new ObjectMapper(factory).registerModule(module);
+
+        // byte arrays are the main value class, numbers and objects are exceptions
+        Map<Object, Object> map = new HashMap<>();
+        map.put(new ComplexObject("key1", "1key"), new byte[] { 1, 2, 3 });
+        map.put(new ComplexObject("key2", "2key"), new byte[] { -1, 0, 127, -128 });
+        map.put(new ComplexObject("key3", "3key"), new byte[0]);
+        map.put(new ExtendedObject("key4", "4key", 4), 42);
+        map.put(new ComplexObject("key5", "5key"), 4.2);
+        map.put(new ComplexObject("key6", "6key"), Boolean.TRUE);
+        map.put(new ComplexObject("key7", "7key"), new ComplexObject("value7", "7value"));
+
+        byte[] data = mapper.writeValueAsBytes(map);
+        Map<Object, Object> readMap = mapper.readValue(data, Map.class);
+
+        Assert.assertEquals("Maps differ after serialization with " + formatName, map.size(), readMap.size());
+        for (Object key : map.keySet()) {
+            Assert.assertTrue("Map is missing key " + key.toString() + " after serialization with " + formatName,
+                    readMap.containsKey(key));
+            Object value = map.get(key);
+            if (value instanceof byte[]) {
+                Assert.assertArrayEquals("Maps have different values for key " + key.toString()
+                        + " after serialization with " + formatName, (byte[]) value, (byte[]) readMap.get(key));
+            } else {
+                Assert.assertEquals("Maps have different values for key " + key.toString()
+                        + " after serialization with " + formatName, value, readMap.get(key));
+            }
+        }
+    }
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        List<Object[]> testConfigs = new ArrayList<Object[]>();
+        testConfigs.add(new Object[] { "JSON", new JsonFactory() });
+        testConfigs.add(new Object[] { "Smile", new SmileFactory() });
+        // Smile with back-references for repeated class names and raw binary data
+        testConfigs.add(new Object[] { "Smile (shared strings, raw binary)",
+                SmileFactory.builder().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                        .disable(SmileGenerator.Feature.ENCODE_BINARY_AS_7BIT).build() });
+        testConfigs.add(new Object[] { "CBOR", new CBORFactory() });
+        return testConfigs;
+    }
+}
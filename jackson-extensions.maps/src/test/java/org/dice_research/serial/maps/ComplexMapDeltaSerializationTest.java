@@ -0,0 +1,72 @@
+package org.dice_research.serial.maps;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.dice_research.serial.maps.ComplexMapSerializationTest.ComplexObject;
+import org.dice_research.serial.maps.ComplexMapSerializationTest.ExtendedObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+public class ComplexMapDeltaSerializationTest {
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void test() throws JsonProcessingException {
+        SimpleModule module = new SimpleModule();
+        module.addSerializer(MapDelta.class, new ComplexMapDeltaSerializer());
+        module.addDeserializer(MapDelta.class, new ComplexMapDeltaDeserializer());
+        ObjectMapper mapper = new ObjectMapper().registerModule(module);
+
+        ComplexObject key1 = new ComplexObject("key1", "1key");
+        ComplexObject key2 = new ComplexObject("key2", "2key");
+        ComplexObject key3 = new ComplexObject("key3", "3key");
+        ExtendedObject key4 = new ExtendedObject("key4", "4key", 4);
+        ComplexObject value1 = new ComplexObject("value1", "1value");
+        ComplexObject value2 = new ComplexObject("value2", "2value");
+        ExtendedObject value3 = new ExtendedObject("value3", "3value", 3);
+
+        Map<ComplexObject, ComplexObject> previous = new HashMap<>();
+        previous.put(key1, value1);
+        previous.put(key2, value2);
+        previous.put(key4, value1);
+        Map<ComplexObject, ComplexObject> current = new HashMap<>();
+        current.put(key1, value1);
+        current.put(key2, value3);
+        current.put(key3, value2);
+
+        MapDelta<ComplexObject, ComplexObject> delta = MapDelta.diff(previous, current);
+        Assert.assertEquals(2, delta.getPuts().size());
+        Assert.assertEquals(1, delta.getRemovals().size());
+
+        String json = mapper.writeValueAsString(delta);
+        MapDelta<ComplexObject, ComplexObject> readDelta = mapper.readValue(json, MapDelta.class);
+        Assert.assertEquals("Deltas differ after serialization. JSON String: " + json, delta, readDelta);
+
+        Map<ComplexObject, ComplexObject> updated = new HashMap<>(previous);
+        readDelta.applyTo(updated);
+        Assert.assertEquals("Applying the delta did not lead to the current map. JSON String: " + json, current,
+                updated);
+    }
+
+    @Test
+    public void testEmptyDelta() throws JsonProcessingException {
+        SimpleModule module = new SimpleModule();
+        module.addSerializer(MapDelta.class, new ComplexMapDeltaSerializer());
+        module.addDeserializer(MapDelta.class, new ComplexMapDeltaDeserializer());
+        ObjectMapper mapper = new ObjectMapper().registerModule(module);
+
+        Map<String, String> map = new HashMap<>();
+        map.put("a", "b");
+        MapDelta<String, String> delta = MapDelta.diff(map, new HashMap<>(map));
+        Assert.assertTrue(delta.isEmpty());
+
+        String json = mapper.writeValueAsString(delta);
+        Assert.assertEquals("{}", json);
+        Assert.assertTrue(mapper.readValue(json, MapDelta.class).isEmpty());
+    }
+}
@@ -0,0 +1,105 @@
+package org.dice_research.serial.maps;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.dice_research.serial.maps.ComplexMapSerializationTest.ComplexObject;
+import org.dice_research.serial.maps.ComplexMapSerializationTest.ExtendedObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ComplexMapProjectionTest {
+
+    private Map<ComplexObject, ComplexObject> createMap() {
+        Map<ComplexObject, ComplexObject> map = new LinkedHashMap<>();
+        map.put(new ComplexObject("key1", "a"), new ComplexObject("value1", "1value"));
+        map.put(new ComplexObject("key2", "b"), new ExtendedObject("value2", "2value", 2));
+        map.put(new ExtendedObject("key3", "a", 3), new ComplexObject("value3", "3value"));
+        map.put(new ComplexObject("key4", "a"), new ComplexObject("value4", "4value"));
+        return map;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testKeyFilter() throws IOException {
+        ComplexHashMapDeserializer deserializer = new ComplexHashMapDeserializer();
+        deserializer.setKeyFilter(k -> "a".equals(((ComplexObject) k).getAttribute2()));
+        ObjectMapper mapper = ComplexMapTestFixtures.createMapper(deserializer);
+
+        Map<ComplexObject, ComplexObject> map = createMap();
+        String json = mapper.writeValueAsString(map);
+        Map<ComplexObject, ComplexObject> readMap = mapper.readValue(json, Map.class);
+
+        Map<ComplexObject, ComplexObject> expectedMap = new HashMap<>(map);
+        expectedMap.remove(new ComplexObject("key2", "b"));
+        Assert.assertEquals("Unexpected projection. JSON String: " + json, expectedMap, readMap);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testMaxElements() throws IOException {
+        ComplexHashMapDeserializer deserializer = new ComplexHashMapDeserializer();
+        deserializer.setKeyFilter(k -> "a".equals(((ComplexObject) k).getAttribute2()));
+        deserializer.setMaxElements(2);
+        ObjectMapper mapper = ComplexMapTestFixtures.createMapper(deserializer);
+
+        Map<ComplexObject, ComplexObject> map = createMap();
+        String json = mapper.writeValueAsString(map);
+        Map<ComplexObject, ComplexObject> readMap = mapper.readValue(json, Map.class);
+
+        Assert.assertEquals("Unexpected projection. JSON String: " + json, 2, readMap.size());
+        for (ComplexObject key : readMap.keySet()) {
+            Assert.assertEquals("a", key.getAttribute2());
+            Assert.assertEquals(map.get(key), readMap.get(key));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testKeyFilterAttribute() throws IOException {
+        ComplexHashMapDeserializer deserializer = new ComplexHashMapDeserializer();
+        // the default filter is overridden by the attribute
+        deserializer.setKeyFilter(k -> false);
+        ObjectMapper mapper = ComplexMapTestFixtures.createMapper(deserializer);
+
+        Map<ComplexObject, ComplexObject> map = createMap();
+        String json = mapper.writeValueAsString(map);
+        Predicate<Object> filterA = k -> "a".equals(((ComplexObject) k).getAttribute2());
+        Predicate<Object> filterB = k -> "b".equals(((ComplexObject) k).getAttribute2());
+        Map<ComplexObject, ComplexObject> readMapA = mapper.readerFor(Map.class)
+                .withAttribute(AbstractComplexMapDeserializer.KEY_FILTER, filterA).readValue(json);
+        Map<ComplexObject, ComplexObject> readMapB = mapper.readerFor(Map.class)
+                .withAttribute(AbstractComplexMapDeserializer.KEY_FILTER, filterB).readValue(json);
+
+        Map<ComplexObject, ComplexObject> expectedMap = new HashMap<>(map);
+        expectedMap.remove(new ComplexObject("key2", "b"));
+        Assert.assertEquals("Unexpected projection. JSON String: " + json, expectedMap, readMapA);
+        Assert.assertEquals("Unexpected projection. JSON String: " + json, 1, readMapB.size());
+        Assert.assertEquals(map.get(new ComplexObject("key2", "b")), readMapB.get(new ComplexObject("key2", "b")));
+    }
+
+    @Test
+    public void testModuleAttributes() throws IOException {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new ComplexMapsModule());
+
+        Map<ComplexObject, ComplexObject> map = createMap();
+        String json = mapper.writeValueAsString(map);
+        Map<ComplexObject, ComplexObject> readMap = mapper.readerFor(Map.class)
+                .withAttribute(AbstractComplexMapDeserializer.KEY_FILTER,
+                        (Predicate<Object>) k -> "a".equals(((ComplexObject) k).getAttribute2()))
+                .withAttribute(AbstractComplexMapDeserializer.MAX_ELEMENTS, 2).readValue(json);
+
+        Assert.assertEquals("Unexpected projection. JSON String: " + json, 2, readMap.size());
+        for (ComplexObject key : readMap.keySet()) {
+            Assert.assertEquals("a", key.getAttribute2());
+            Assert.assertEquals(map.get(key), readMap.get(key));
+        }
+        // the attributes are not kept for other calls
+        Assert.assertEquals(map, mapper.readValue(json, Map.class));
+    }
+}
@@ -0,0 +1,47 @@
+package org.dice_research.serial.maps;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.dice_research.serial.maps.ComplexMapSerializationTest.ComplexObject;
+import org.dice_research.serial.maps.ComplexMapSerializationTest.ExtendedObject;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+/**
+ * Fixtures that are shared by the tests of this package.
+ *
+ * @author Michael R&ouml;der (michael.roeder@uni-paderborn.de)
+ *
+ */
+public class ComplexMapTestFixtures {
+
+    /**
+     * Creates a map with three elements in which one of the keys and one of the
+     * values are {@link ExtendedObject} instances.
+     *
+     * @return the created map
+     */
+    public static Map<ComplexObject, ComplexObject> createTestMap() {
+        Map<ComplexObject, ComplexObject> map = new HashMap<>();
+        map.put(new ComplexObject("key1", "1key"), new ComplexObject("value1", "1value"));
+        map.put(new ComplexObject("key2", "2key"), new ExtendedObject("value2", "2value", 2));
+        map.put(new ExtendedObject("key3", "3key", 3), new ComplexObject("value3", "3value"));
+        return map;
+    }
+
+    /**
+     * Creates a mapper that writes maps with the {@link ComplexMapSerializer} and
+     * reads them with the given deserializer.
+     *
+     * @param deserializer the deserializer used for {@link Map} instances
+     * @return the created mapper
+     */
+    public static ObjectMapper createMapper(AbstractComplexMapDeserializer<?> deserializer) {
+        SimpleModule module = new SimpleModule();
+        module.addSerializer(Map.class, new ComplexMapSerializer());
+        module.addDeserializer(Map.class, deserializer);
+        return new ObjectMapper().registerModule(module);
+    }
+}
@@ -0,0 +1,98 @@
+package org.dice_research.serial.maps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.dice_research.serial.maps.ComplexMapSerializationTest.ComplexObject;
+import org.dice_research.serial.maps.ComplexMapSerializationTest.ExtendedObject;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+/**
+ * Tests the {@link ComplexMapSerializer} with a type trailer, i.e., the main
+ * classes are written after the array of elements.
+ */
+@RunWith(Parameterized.class)
+public class ComplexMapTypeTrailerTest {
+
+    private Map<ComplexObject, ComplexObject> map;
+
+    public ComplexMapTypeTrailerTest(Map<ComplexObject, ComplexObject> map) {
+        super();
+        this.map = map;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void test() throws JsonProcessingException {
+        ComplexMapSerializer serializer = new ComplexMapSerializer();
+        serializer.setTypeTrailer(true);
+        SimpleModule module = new SimpleModule();
+        module.addSerializer(Map.class, serializer);
+        module.addDeserializer(Map.class, new ComplexHashMapDeserializer());
+        ObjectMapper mapper = new ObjectMapper().registerModule(module);
+
+        String json = mapper.writeValueAsString(map);
+        Map<ComplexObject, ComplexObject> readMap = mapper.readValue(json, Map.class);
+
+        Assert.assertEquals("Maps differ after serialization. JSON String: " + json, map, readMap);
+        if (!map.isEmpty()) {
+            Assert.assertTrue("The key class is not written as trailer. JSON String: " + json,
+                    json.lastIndexOf("\"" + ComplexMapSerializer.KEY_TYPE_FIELD + "\":") > json.lastIndexOf("]"));
+        }
+    }
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        List<Object[]> testConfigs = new ArrayList<Object[]>();
+
+        ComplexObject key1 = new ComplexObject("key1", "1key");
+        ComplexObject key2 = new ComplexObject("key2", "2key");
+        ComplexObject value1 = new ComplexObject("value1", "1value");
+        ComplexObject value2 = new ComplexObject("value2", "2value");
+        ExtendedObject extObj1 = new ExtendedObject("ext1", "object1", 1);
+        ExtendedObject extObj2 = new ExtendedObject("ext2", "object2", 2);
+
+        // empty map
+        testConfigs.add(new Object[] { new HashMap<>() });
+        // single element
+        Map<ComplexObject, ComplexObject> map = new LinkedHashMap<>();
+        map.put(key1, value1);
+        testConfigs.add(new Object[] { map });
+        // the first element has the majority classes
+        map = new LinkedHashMap<>();
+        map.put(key1, value1);
+        map.put(key2, value2);
+        map.put(extObj1, extObj2);
+        testConfigs.add(new Object[] { map });
+        // the first element does not have the majority classes
+        map = new LinkedHashMap<>();
+        map.put(extObj1, extObj2);
+        map.put(key1, value1);
+        map.put(key2, value2);
+        testConfigs.add(new Object[] { map });
+        // the value of the first element is null
+        map = new LinkedHashMap<>();
+        map.put(key1, null);
+        map.put(key2, value2);
+        testConfigs.add(new Object[] { map });
+        // the key of the first element is null
+        map = new LinkedHashMap<>();
+        map.put(null, value1);
+        map.put(key2, value2);
+        testConfigs.add(new Object[] { map });
+
+        return testConfigs;
+    }
+}
@@ -0,0 +1,86 @@
+package org.dice_research.serial.maps;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.dice_research.serial.maps.ComplexMapSerializationTest.ComplexObject;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+@RunWith(Parameterized.class)
+public class ComplexMapUpdateTest {
+
+    private static final ComplexObject KEY1 = new ComplexObject("key1", "1key");
+    private static final ComplexObject KEY2 = new ComplexObject("key2", "2key");
+    private static final ComplexObject KEY3 = new ComplexObject("key3", "3key");
+    private static final ComplexObject VALUE1 = new ComplexObject("value1", "1value");
+    private static final ComplexObject VALUE2 = new ComplexObject("value2", "2value");
+    private static final ComplexObject VALUE3 = new ComplexObject("value3", "3value");
+
+    private MergeMode mergeMode;
+    private Map<ComplexObject, ComplexObject> expectedMap;
+
+    public ComplexMapUpdateTest(MergeMode mergeMode, Map<ComplexObject, ComplexObject> expectedMap) {
+        super();
+        this.mergeMode = mergeMode;
+        this.expectedMap = expectedMap;
+    }
+
+    @Test
+    public void test() throws IOException {
+        ComplexHashMapDeserializer deserializer = new ComplexHashMapDeserializer();
+        deserializer.setMergeMode(mergeMode);
+        SimpleModule module = new SimpleModule();
+        module.addSerializer(HashMap.class, new ComplexMapSerializer());
+        module.addDeserializer(HashMap.class, deserializer);
+        ObjectMapper mapper = new ObjectMapper().registerModule(module);
+
+        Map<ComplexObject, ComplexObject> update = new HashMap<>();
+        update.put(KEY2, VALUE3);
+        update.put(KEY3, VALUE3);
+        String json = mapper.writeValueAsString(update);
+
+        Map<ComplexObject, ComplexObject> existingMap = new HashMap<>();
+        existingMap.put(KEY1, VALUE1);
+        existingMap.put(KEY2, VALUE2);
+        Map<ComplexObject, ComplexObject> readMap = mapper.readerForUpdating(existingMap).readValue(json);
+
+        Assert.assertSame(existingMap, readMap);
+        Assert.assertEquals("Unexpected map after update. JSON String: " + json, expectedMap, readMap);
+    }
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        List<Object[]> testConfigs = new ArrayList<Object[]>();
+
+        Map<ComplexObject, ComplexObject> map;
+        map = new HashMap<>();
+        map.put(KEY2, VALUE3);
+        map.put(KEY3, VALUE3);
+        testConfigs.add(new Object[] { MergeMode.REPLACE, map });
+
+        map = new HashMap<>();
+        map.put(KEY1, VALUE1);
+        map.put(KEY2, VALUE3);
+        map.put(KEY3, VALUE3);
+        testConfigs.add(new Object[] { MergeMode.PUT_ALL, map });
+
+        map = new HashMap<>();
+        map.put(KEY1, VALUE1);
+        map.put(KEY2, VALUE2);
+        map.put(KEY3, VALUE3);
+        testConfigs.add(new Object[] { MergeMode.PUT_IF_ABSENT, map });
+
+        return testConfigs;
+    }
+}
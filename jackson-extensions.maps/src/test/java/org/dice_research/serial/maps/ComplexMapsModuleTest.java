@@ -0,0 +1,96 @@
+package org.dice_research.serial.maps;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.dice_research.serial.maps.ComplexMapSerializationTest.ComplexObject;
+import org.dice_research.serial.maps.ComplexMapSerializationTest.ComplexObjectComparator;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@RunWith(Parameterized.class)
+public class ComplexMapsModuleTest {
+
+    private Map<ComplexObject, ComplexObject> map;
+    private Class<?> requestedClass;
+    private Class<?> expectedClass;
+
+    public ComplexMapsModuleTest(Map<ComplexObject, ComplexObject> map, Class<?> requestedClass,
+            Class<?> expectedClass) {
+        super();
+        this.map = map;
+        this.requestedClass = requestedClass;
+        this.expectedClass = expectedClass;
+    }
+
+    @Test
+    public void test() throws IOException {
+        ComplexMapsModule module = new ComplexMapsModule();
+        module.addMapFactory(TreeMap.class, () -> new TreeMap<>(new ComplexObjectComparator()));
+        ObjectMapper mapper = new ObjectMapper().registerModule(module);
+
+        String json = mapper.writeValueAsString(map);
+        Map<?, ?> readMap = (Map<?, ?>) mapper.readValue(json, requestedClass);
+
+        Assert.assertEquals("Unexpected map class. JSON String: " + json, expectedClass, readMap.getClass());
+        Assert.assertEquals("Maps differ after serialization. JSON String: " + json, map, readMap);
+        if (map instanceof LinkedHashMap) {
+            // check that the order has been kept
+            Iterator<?> iterator = readMap.keySet().iterator();
+            for (ComplexObject key : map.keySet()) {
+                Assert.assertEquals(key, iterator.next());
+            }
+        }
+        if (TreeMap.class.equals(expectedClass)) {
+            Assert.assertTrue("The comparator of the factory has not been used",
+                    ((TreeMap<?, ?>) readMap).comparator() instanceof ComplexObjectComparator);
+        }
+    }
+
+    @Test
+    public void testDelta() throws IOException {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new ComplexMapsModule());
+        MapDelta<ComplexObject, ComplexObject> delta = MapDelta.diff(new HashMap<>(), map);
+        String json = mapper.writeValueAsString(delta);
+        Assert.assertEquals("Deltas differ after serialization. JSON String: " + json, delta,
+                mapper.readValue(json, MapDelta.class));
+    }
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        List<Object[]> testConfigs = new ArrayList<Object[]>();
+
+        Map<ComplexObject, ComplexObject> map = ComplexMapTestFixtures.createTestMap();
+
+        testConfigs.add(new Object[] { map, Map.class, HashMap.class });
+        testConfigs.add(new Object[] { map, HashMap.class, HashMap.class });
+        testConfigs.add(new Object[] { new LinkedHashMap<>(map), LinkedHashMap.class, LinkedHashMap.class });
+        testConfigs.add(new Object[] { map, ConcurrentMap.class, ConcurrentHashMap.class });
+        testConfigs.add(new Object[] { map, ConcurrentHashMap.class, ConcurrentHashMap.class });
+        Map<ComplexObject, ComplexObject> treeMap = new TreeMap<>(new ComplexObjectComparator());
+        treeMap.putAll(map);
+        testConfigs.add(new Object[] { treeMap, TreeMap.class, TreeMap.class });
+        // SortedMap and NavigableMap are mapped to the factory of TreeMap
+        testConfigs.add(new Object[] { treeMap, SortedMap.class, TreeMap.class });
+        testConfigs.add(new Object[] { treeMap, NavigableMap.class, TreeMap.class });
+        testConfigs.add(new Object[] { map, CompactImmutableMap.class, CompactImmutableMap.class });
+
+        return testConfigs;
+    }
+}
@@ -0,0 +1,152 @@
+package org.dice_research.serial.maps;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.dice_research.serial.maps.ComplexMapSerializationTest.ComplexObject;
+import org.dice_research.serial.maps.ComplexMapSerializationTest.ExtendedObject;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+@RunWith(Parameterized.class)
+public class ComplexMultimapSerializationTest {
+
+    private boolean typeTrailer;
+
+    public ComplexMultimapSerializationTest(boolean typeTrailer) {
+        super();
+        this.typeTrailer = typeTrailer;
+    }
+
+    private ObjectMapper createMapper() {
+        ComplexMultimapSerializer serializer = new ComplexMultimapSerializer();
+        serializer.setTypeTrailer(typeTrailer);
+        SimpleModule module = new SimpleModule();
+        module.addSerializer(Map.class, serializer);
+        module.addDeserializer(Map.class, new ComplexHashMapDeserializer());
+        return new ObjectMapper().registerModule(module);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testListValues() throws IOException {
+        ObjectMapper mapper = createMapper();
+        Map<ComplexObject, List<ComplexObject>> map = new LinkedHashMap<>();
+        map.put(new ComplexObject("key1", "1key"), new ArrayList<>(Arrays.asList(
+                new ComplexObject("value1", "1value"), new ComplexObject("value2", "2value"))));
+        map.put(new ComplexObject("key2", "2key"), new ArrayList<>(Arrays.asList(
+                new ComplexObject("value3", "3value"), new ExtendedObject("value4", "4value", 4), null)));
+        map.put(new ExtendedObject("key3", "3key", 3), new ArrayList<>());
+
+        String json = mapper.writeValueAsString(map);
+        Map<ComplexObject, List<ComplexObject>> readMap = mapper.readValue(json, Map.class);
+
+        Assert.assertEquals("Maps differ after serialization. JSON String: " + json, map, readMap);
+        for (List<ComplexObject> value : readMap.values()) {
+            Assert.assertEquals(ArrayList.class, value.getClass());
+        }
+        if (!typeTrailer) {
+            // The main element class should be written only once
+            String elementTypeField = "\"" + ComplexMapSerializer.ELEMENT_TYPE_FIELD + "\":";
+            Assert.assertEquals("Unexpected number of element class fields. JSON String: " + json,
+                    json.indexOf(elementTypeField), json.lastIndexOf(elementTypeField));
+            Assert.assertTrue("Couldn't find the element class field. JSON String: " + json,
+                    json.indexOf(elementTypeField) >= 0);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testMixedValues() throws IOException {
+        ObjectMapper mapper = createMapper();
+        Map<ComplexObject, Object> map = new HashMap<>();
+        map.put(new ComplexObject("key1", "1key"), new HashSet<>(Arrays.asList(
+                new ComplexObject("value1", "1value"), new ComplexObject("value2", "2value"))));
+        map.put(new ComplexObject("key2", "2key"), new LinkedHashSet<>(Arrays.asList(
+                new ComplexObject("value3", "3value"), new ExtendedObject("value4", "4value", 4))));
+        map.put(new ComplexObject("key3", "3key"), new ComplexObject("value5", "5value"));
+        // immutable lists are read as ArrayList
+        map.put(new ComplexObject("key4", "4key"),
+                Collections.unmodifiableList(Arrays.asList(new ComplexObject("value6", "6value"))));
+
+        String json = mapper.writeValueAsString(map);
+        Map<ComplexObject, Object> readMap = mapper.readValue(json, Map.class);
+
+        Assert.assertEquals("Maps differ after serialization. JSON String: " + json, map, readMap);
+        Assert.assertEquals(HashSet.class, readMap.get(new ComplexObject("key1", "1key")).getClass());
+        Assert.assertEquals(LinkedHashSet.class, readMap.get(new ComplexObject("key2", "2key")).getClass());
+        Assert.assertEquals(ArrayList.class, readMap.get(new ComplexObject("key4", "4key")).getClass());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testReflectivelyCreatedCollections() throws IOException {
+        ObjectMapper mapper = createMapper();
+        Map<ComplexObject, Collection<String>> map = new HashMap<>();
+        map.put(new ComplexObject("key1", "1key"), new LinkedList<>(Arrays.asList("b", "a")));
+        map.put(new ComplexObject("key2", "2key"), new TreeSet<>(Arrays.asList("b", "a")));
+
+        String json = mapper.writeValueAsString(map);
+        // The second read uses the cached collection factories
+        for (int i = 0; i < 2; ++i) {
+            Map<ComplexObject, Collection<String>> readMap = mapper.readValue(json, Map.class);
+            Assert.assertEquals("Maps differ after serialization. JSON String: " + json, map, readMap);
+            Assert.assertEquals(LinkedList.class, readMap.get(new ComplexObject("key1", "1key")).getClass());
+            Assert.assertEquals(TreeSet.class, readMap.get(new ComplexObject("key2", "2key")).getClass());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testKeyFilterSkipsItemClasses() throws IOException {
+        // ExtendedObject is not registered but only used within a skipped element
+        ComplexHashMapDeserializer deserializer = new ComplexHashMapDeserializer();
+        deserializer.setTypeRegistry(new TypeRegistry().register(ComplexObject.class, ArrayList.class));
+        deserializer.setKeyFilter(k -> "1key".equals(((ComplexObject) k).getAttribute2()));
+        ComplexMultimapSerializer serializer = new ComplexMultimapSerializer();
+        serializer.setTypeTrailer(typeTrailer);
+        SimpleModule module = new SimpleModule();
+        module.addSerializer(Map.class, serializer);
+        module.addDeserializer(Map.class, deserializer);
+        ObjectMapper mapper = new ObjectMapper().registerModule(module);
+
+        Map<ComplexObject, List<ComplexObject>> map = new LinkedHashMap<>();
+        map.put(new ComplexObject("key1", "1key"), new ArrayList<>(Arrays.asList(
+                new ComplexObject("value1", "1value"), new ComplexObject("value2", "2value"))));
+        map.put(new ComplexObject("key2", "2key"), new ArrayList<>(Arrays.asList(
+                new ComplexObject("value3", "3value"), new ExtendedObject("value4", "4value", 4))));
+
+        String json = mapper.writeValueAsString(map);
+        Assert.assertTrue("The JSON should contain item classes. JSON String: " + json,
+                json.contains("\"" + ComplexMapSerializer.ITEM_TYPES_FIELD + "\":"));
+        Map<ComplexObject, List<ComplexObject>> readMap = mapper.readValue(json, Map.class);
+
+        map.remove(new ComplexObject("key2", "2key"));
+        Assert.assertEquals("Maps differ after serialization. JSON String: " + json, map, readMap);
+    }
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        List<Object[]> testConfigs = new ArrayList<Object[]>();
+        testConfigs.add(new Object[] { false });
+        testConfigs.add(new Object[] { true });
+        return testConfigs;
+    }
+}
@@ -0,0 +1,61 @@
+package org.dice_research.serial.maps;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Tests that the size of a grouped collection value is only used as a hint,
+ * i.e., a size that does not match the items neither leads to a large
+ * allocation nor to a wrong collection.
+ */
+public class ComplexMultimapSizeHintTest {
+
+    private static final String OVERSIZED_LIST = "{\"a\":\"java.lang.String\",\"b\":\"java.util.ArrayList\","
+            + "\"e\":\"java.lang.String\",\"c\":[{\"k\":\"x\",\"n\":2000000000,\"v\":[]}]}";
+    private static final String OVERSIZED_SET_WITH_ITEM_CLASSES = "{\"a\":\"java.lang.String\","
+            + "\"b\":\"java.util.HashSet\",\"e\":\"java.lang.String\",\"c\":[{\"k\":\"x\",\"n\":2000000000,"
+            + "\"t\":[\"\",\"java.lang.Integer\"],\"v\":[\"y\",1]}]}";
+    private static final String UNDERSIZED_LIST = "{\"a\":\"java.lang.String\",\"b\":\"java.util.ArrayList\","
+            + "\"e\":\"java.lang.String\",\"c\":[{\"k\":\"x\",\"n\":1,\"v\":[\"y\",\"z\"]}]}";
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testOversizedList() throws IOException {
+        TypeRegistry registry = new TypeRegistry().register(String.class, ArrayList.class);
+        ObjectMapper mapper = new ObjectMapper().registerModule(new ComplexMapsModule().setTypeRegistry(registry));
+
+        Map<String, Collection<String>> readMap = mapper.readValue(OVERSIZED_LIST, Map.class);
+
+        Assert.assertEquals(1, readMap.size());
+        Assert.assertEquals(new ArrayList<>(), readMap.get("x"));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testOversizedSetWithItemClasses() throws IOException {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new ComplexMapsModule());
+
+        Map<String, Collection<Object>> readMap = mapper.readValue(OVERSIZED_SET_WITH_ITEM_CLASSES, Map.class);
+
+        Assert.assertEquals(new HashSet<>(Arrays.asList("y", 1)), readMap.get("x"));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testUndersizedList() throws IOException {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new ComplexMapsModule());
+
+        Map<String, Collection<String>> readMap = mapper.readValue(UNDERSIZED_LIST, Map.class);
+
+        Assert.assertEquals(Arrays.asList("y", "z"), readMap.get("x"));
+    }
+}
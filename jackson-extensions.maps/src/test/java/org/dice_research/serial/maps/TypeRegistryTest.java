@@ -0,0 +1,54 @@
+package org.dice_research.serial.maps;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.dice_research.serial.maps.ComplexMapSerializationTest.ComplexObject;
+import org.dice_research.serial.maps.ComplexMapSerializationTest.ExtendedObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class TypeRegistryTest {
+
+    @Test
+    public void testRegisteredClasses() throws IOException {
+        TypeRegistry registry = new TypeRegistry().register(ComplexObject.class, ExtendedObject.class);
+        ObjectMapper mapper = new ObjectMapper().registerModule(new ComplexMapsModule().setTypeRegistry(registry));
+        registry.prebuildDeserializers(mapper);
+
+        Map<ComplexObject, ComplexObject> map = ComplexMapTestFixtures.createTestMap();
+        String json = mapper.writeValueAsString(map);
+        Assert.assertEquals("Maps differ after serialization. JSON String: " + json, map,
+                mapper.readValue(json, HashMap.class));
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnregisteredClass() throws IOException {
+        // ExtendedObject is not registered
+        TypeRegistry registry = new TypeRegistry().register(ComplexObject.class);
+        ObjectMapper mapper = new ObjectMapper().registerModule(new ComplexMapsModule().setTypeRegistry(registry));
+
+        String json = mapper.writeValueAsString(ComplexMapTestFixtures.createTestMap());
+        mapper.readValue(json, HashMap.class);
+    }
+
+    @Test
+    public void testReflectionConfig() throws IOException {
+        TypeRegistry registry = new TypeRegistry().register(ComplexObject.class, byte[].class);
+        StringWriter writer = new StringWriter();
+        registry.writeReflectionConfig(writer);
+
+        JsonNode config = new ObjectMapper().readTree(writer.toString());
+        Assert.assertTrue(config.isArray());
+        Assert.assertEquals(2, config.size());
+        for (JsonNode entry : config) {
+            Assert.assertNotNull(registry.getRegisteredClass(entry.get("name").asText()));
+            Assert.assertTrue(entry.get("allDeclaredConstructors").asBoolean());
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package org.dice_research.serial.report;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.ResourceFactory;
+import org.dice_research.serial.jena.JenaPropertyDeserializer;
+import org.dice_research.serial.jena.JenaPropertySerializer;
+import org.dice_research.serial.maps.ComplexHashMapDeserializer;
+import org.dice_research.serial.maps.ComplexMapSerializer;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+/**
+ * Checks that the (de)serializers of the other modules stay within their
+ * allocation and time budgets per entry. The budgets are stored in the
+ * <code>allocation-budgets.properties</code> file with keys of the form
+ * <code>&lt;case&gt;.&lt;size&gt;.bytesPerEntry</code> and
+ * <code>&lt;case&gt;.&lt;size&gt;.nanosPerEntry</code>. The allocated bytes are
+ * measured with the {@link com.sun.management.ThreadMXBean} of the current
+ * thread after a warmup phase. The allocation budgets are tight enough to fail
+ * if the garbage per entry doubles. Since the allocations depend on the JVM,
+ * the test is skipped if the Java version differs from the version with which
+ * the budgets have been measured (the <code>java.specification.version</code>
+ * key of the budget file). The CI build runs this version. The time budgets
+ * are roughly three times the values measured on a developer machine. Since
+ * they would be flaky on shared machines, they are only checked if the
+ * <code>timing-budgets</code> profile of this module is active (i.e., if the
+ * {@value #CHECK_TIME_PROPERTY} system property is <code>true</code>).
+ */
+@RunWith(Parameterized.class)
+public class AllocationBudgetTest {
+
+    private static final String BUDGETS_FILE = "allocation-budgets.properties";
+    private static final String JAVA_VERSION_KEY = "java.specification.version";
+    /**
+     * The system property that enables the check of the time budgets.
+     */
+    public static final String CHECK_TIME_PROPERTY = "allocation.budgets.checkTime";
+    /**
+     * The number of entries that are processed during the warmup and the
+     * measurement phase, respectively.
+     */
+    private static final int ENTRIES_PER_PHASE = 200000;
+
+    private static Properties budgets;
+
+    private String caseName;
+    private int size;
+
+    public AllocationBudgetTest(String caseName, int size) {
+        super();
+        this.caseName = caseName;
+        this.size = size;
+    }
+
+    @BeforeClass
+    public static void loadBudgets() throws IOException {
+        budgets = new Properties();
+        try (InputStream in = AllocationBudgetTest.class.getClassLoader().getResourceAsStream(BUDGETS_FILE)) {
+            Assert.assertNotNull("Couldn't find the budget file " + BUDGETS_FILE, in);
+            budgets.load(in);
+        }
+    }
+
+    @Test
+    public void test() throws IOException {
+        String budgetJavaVersion = budgets.getProperty(JAVA_VERSION_KEY);
+        Assume.assumeTrue("The budgets have been measured with Java " + budgetJavaVersion + ".",
+                Objects.equals(budgetJavaVersion, System.getProperty(JAVA_VERSION_KEY)));
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue("Allocated bytes can not be measured on this JVM.",
+                (bean instanceof com.sun.management.ThreadMXBean)
+                        && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported());
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        RoundTripStep step = createStep();
+        int repetitions = Math.max(5, ENTRIES_PER_PHASE / size);
+        // warmup
+        for (int i = 0; i < repetitions; ++i) {
+            step.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        long startBytes = threadBean.getThreadAllocatedBytes(threadId);
+        long startTime = System.nanoTime();
+        for (int i = 0; i < repetitions; ++i) {
+            step.run();
+        }
+        long time = System.nanoTime() - startTime;
+        long bytes = threadBean.getThreadAllocatedBytes(threadId) - startBytes;
+        long operations = (long) repetitions * size;
+
+        double bytesPerEntry = bytes / (double) operations;
+        double nanosPerEntry = time / (double) operations;
+        String key = caseName + "." + size;
+        double bytesBudget = getBudget(key + ".bytesPerEntry");
+        Assert.assertTrue(String.format("%s allocated %.1f bytes per entry (budget: %.1f)", key, bytesPerEntry,
+                bytesBudget), bytesPerEntry <= bytesBudget);
+        if (Boolean.getBoolean(CHECK_TIME_PROPERTY)) {
+            double nanosBudget = getBudget(key + ".nanosPerEntry");
+            Assert.assertTrue(String.format("%s needed %.1f ns per entry (budget: %.1f)", key, nanosPerEntry,
+                    nanosBudget), nanosPerEntry <= nanosBudget);
+        }
+    }
+
+    protected double getBudget(String key) {
+        String value = budgets.getProperty(key);
+        Assert.assertNotNull("The budget file " + BUDGETS_FILE + " does not contain the budget " + key, value);
+        return Double.parseDouble(value);
+    }
+
+    /**
+     * Creates the step that is measured for the current case.
+     */
+    protected RoundTripStep createStep() throws IOException {
+        switch (caseName) {
+        case "ComplexMapSerializer": {
+            ObjectMapper mapper = createMapMapper();
+            Map<BudgetObject, BudgetObject> map = createMap(size);
+            return () -> mapper.writeValueAsBytes(map);
+        }
+        case "ComplexHashMapDeserializer": {
+            ObjectMapper mapper = createMapMapper();
+            byte[] data = mapper.writeValueAsBytes(createMap(size));
+            return () -> mapper.readValue(data, Map.class);
+        }
+        case "JenaPropertyDeserializer": {
+            SimpleModule module = new SimpleModule();
+            module.addSerializer(Property.class, new JenaPropertySerializer());
+            module.addDeserializer(Property.class, new JenaPropertyDeserializer());
+            ObjectMapper mapper = new ObjectMapper().registerModule(module);
+            Property[] properties = new Property[size];
+            for (int i = 0; i < size; ++i) {
+                properties[i] = ResourceFactory.createProperty("http://example.org/property/p" + i);
+            }
+            byte[] data = mapper.writeValueAsBytes(properties);
+            return () -> mapper.readValue(data, Property[].class);
+        }
+        default:
+            throw new IllegalArgumentException("Unknown case " + caseName);
+        }
+    }
+
+    protected static ObjectMapper createMapMapper() {
+        SimpleModule module = new SimpleModule();
+        module.addSerializer(Map.class, new ComplexMapSerializer());
+        module.addDeserializer(Map.class, new ComplexHashMapDeserializer());
+        return new ObjectMapper().registerModule(module);
+    }
+
+    protected static Map<BudgetObject, BudgetObject> createMap(int size) {
+        Map<BudgetObject, BudgetObject> map = new HashMap<>();
+        for (int i = 0; i < size; ++i) {
+            map.put(new BudgetObject("key" + i, i), new BudgetObject("value" + i, -i));
+        }
+        return map;
+    }
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        List<Object[]> testConfigs = new ArrayList<Object[]>();
+        for (String caseName : new String[] { "ComplexMapSerializer", "ComplexHashMapDeserializer",
+                "JenaPropertyDeserializer" }) {
+            for (int size : new int[] { 10, 1000, 100000 }) {
+                testConfigs.add(new Object[] { caseName, size });
+            }
+        }
+        return testConfigs;
+    }
+
+    /**
+     * A single measured operation.
+     */
+    protected static interface RoundTripStep {
+        void run() throws IOException;
+    }
+
+    /**
+     * A simple class used for the keys and values of the maps.
+     */
+    public static class BudgetObject {
+        private String attribute1;
+        private int attribute2;
+
+        public BudgetObject() {
+        }
+
+        public BudgetObject(String attribute1, int attribute2) {
+            this.attribute1 = attribute1;
+            this.attribute2 = attribute2;
+        }
+
+        public String getAttribute1() {
+            return attribute1;
+        }
+
+        public void setAttribute1(String attribute1) {
+            this.attribute1 = attribute1;
+        }
+
+        public int getAttribute2() {
+            return attribute2;
+        }
+
+        public void setAttribute2(int attribute2) {
+            this.attribute2 = attribute2;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(attribute1, attribute2);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (obj == null || getClass() != obj.getClass())
+                return false;
+            BudgetObject other = (BudgetObject) obj;
+            return Objects.equals(attribute1, other.attribute1) && (attribute2 == other.attribute2);
+        }
+    }
+}